@@ -17,8 +17,15 @@ repositories {
     maven("https://jitpack.io")
 }
 
+// Project modules whose classes ship inside the plugin jar
+val bundled: Configuration by configurations.creating
+
 dependencies {
     paperDevBundle("1.21.1-R0.1-SNAPSHOT")
+
+    // Loot engine (no Bukkit dependency)
+    implementation(project(":loot-core"))
+    bundled(project(":loot-core"))
     
     // SQLite for persistent data (fallback storage)
     implementation("org.xerial:sqlite-jdbc:3.45.0.0")
@@ -28,12 +35,26 @@ dependencies {
     
     // Optional: for better YAML parsing if needed (Paper uses SnakeYAML built-in)
     // Already included in Paper API
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks {
     assemble {
         dependsOn(reobfJar)
     }
+
+    test {
+        useJUnitPlatform()
+    }
+
+    jar {
+        from(provider { bundled.map { zipTree(it) } }) {
+            exclude("META-INF/MANIFEST.MF")
+        }
+    }
 }
 
 tasks.withType<JavaCompile> {
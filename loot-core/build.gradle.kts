@@ -0,0 +1,43 @@
+plugins {
+    `java-library`
+    // Benchmarks: ./gradlew :loot-core:jmh (results in build/results/jmh)
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+group = "dev.waystone"
+version = rootProject.version
+description = "ValhallaLoot core - server-independent loot engine"
+
+java {
+    toolchain.languageVersion.set(JavaLanguageVersion.of(21))
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // Benchmarks read the plugin's bundled table YAMLs
+    jmh("org.yaml:snakeyaml:2.2")
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // Allocation rate and bytes/op alongside ops/sec
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgsAppend.add("-Dvalloot.tables=${rootProject.file("src/main/resources/tables").absolutePath}")
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+    options.release.set(21)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,106 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Loads the plugin's bundled table YAMLs without a server, using the same keys as ConfigManager.
+ * The tables directory is passed in by the build as the valloot.tables system property.
+ */
+final class BundledTables {
+    private BundledTables() {}
+
+    static LootTable load(String name) {
+        Path dir = Path.of(System.getProperty("valloot.tables", "../src/main/resources/tables"));
+        Path file = dir.resolve(name + ".yml");
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            Map<String, Object> root = new Yaml().load(new String(bytes, StandardCharsets.UTF_8));
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            List<LootPool> pools = new ArrayList<>();
+            for (Map.Entry<String, Object> pool : section(root, "pools").entrySet()) {
+                pools.add(loadPool(pool.getKey(), asMap(pool.getValue())));
+            }
+            return new LootTable(String.valueOf(root.getOrDefault("name", name)), pools,
+                bool(root, "first-open-only", true), number(root, "respawn-cooldown-ms", 0).longValue(),
+                number(root, "respawn-variance", 10.0).doubleValue(), crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read bundled table " + file, e);
+        }
+    }
+
+    private static LootPool loadPool(String name, Map<String, Object> section) {
+        List<LootEntry> entries = new ArrayList<>();
+        for (Object value : section(section, "entries").values()) {
+            Map<String, Object> entry = asMap(value);
+            Object material = entry.get("material");
+            if (material == null) {
+                continue;
+            }
+            List<LootCondition> conditions = new ArrayList<>();
+            for (Map.Entry<String, Object> condition : section(entry, "conditions").entrySet()) {
+                conditions.add(condition(condition.getKey(), String.valueOf(condition.getValue())));
+            }
+            @SuppressWarnings("unchecked")
+            List<String> lore = (List<String>) entry.getOrDefault("lore", List.of());
+            entries.add(new LootEntry(material.toString().toUpperCase(Locale.ROOT),
+                number(entry, "min-amount", 1).intValue(), number(entry, "max-amount", 1).intValue(),
+                number(entry, "weight", 1.0).doubleValue(), (String) entry.get("display-name"), lore,
+                conditions, bool(entry, "overwrite", false)));
+        }
+        return new LootPool(name, entries, number(section, "rolls", 1).intValue(),
+            number(section, "roll-bonus", 0.0).doubleValue());
+    }
+
+    private static LootCondition condition(String type, String value) {
+        if (type.startsWith("skill-")) {
+            return LootCondition.Conditions.skillThreshold(type.substring("skill-".length()), Integer.parseInt(value));
+        }
+        return switch (type) {
+            case "permission" -> LootCondition.Conditions.permission(value);
+            case "min-level" -> LootCondition.Conditions.minLevel(Integer.parseInt(value));
+            case "biome" -> LootCondition.Conditions.biome(value);
+            case "world" -> LootCondition.Conditions.world(value);
+            case "night-only" -> LootCondition.Conditions.nightOnly();
+            case "day-only" -> LootCondition.Conditions.dayOnly();
+            default -> LootCondition.Conditions.alwaysTrue();
+        };
+    }
+
+    private static Map<String, Object> section(Map<String, Object> parent, String key) {
+        Object value = parent.get(key);
+        return value instanceof Map ? asMap(value) : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    private static Number number(Map<String, Object> map, String key, Number fallback) {
+        Object value = map.get(key);
+        return value instanceof Number number ? number : fallback;
+    }
+
+    private static boolean bool(Map<String, Object> map, String key, boolean fallback) {
+        Object value = map.get(key);
+        return value instanceof Boolean flag ? flag : fallback;
+    }
+
+    /**
+     * Daytime overworld context used by every benchmark.
+     */
+    static LootContext context() {
+        return new LootContext(new UUID(1L, 2L), "bench", 120, 64, -340, "world",
+            new UUID(3L, 4L), 42L, "CHEST", "PLAINS", 6000L, 0, false, 0, Map.of());
+    }
+}
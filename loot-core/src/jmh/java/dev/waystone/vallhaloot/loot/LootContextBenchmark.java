@@ -0,0 +1,45 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Container key construction, which runs on every container open and close,
+ * and building a context the way the open listener snapshots one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootContextBenchmark {
+    private LootContext context;
+
+    @Setup
+    public void setup() {
+        context = BundledTables.context();
+    }
+
+    @Benchmark
+    public String getContainerKey() {
+        return context.getContainerKey();
+    }
+
+    @Benchmark
+    public String containerKeyUncached() {
+        return LootContext.containerKey(context.getWorldUUID(), context.getBlockX(), context.getBlockY(), context.getBlockZ());
+    }
+
+    @Benchmark
+    public LootContext snapshot() {
+        return LootContext.builder(context.getPlayerUUID(), context.getPlayerName())
+            .world(context.getWorldName(), context.getWorldUUID(), context.getWorldSeed())
+            .position(context.getBlockX(), context.getBlockY(), context.getBlockZ())
+            .container("CHEST")
+            .biome("PLAINS")
+            .time(6000L, 0, false)
+            .build();
+    }
+}
@@ -0,0 +1,39 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full table rolls against every bundled table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootEngineBenchmark {
+    // Keep in sync with src/main/resources/tables
+    @Param({"ancient_city", "bastion_remnant", "buried_treasure", "common", "desert_pyramid", "dungeon",
+            "end_city", "igloo", "jungle_temple", "mansion", "mineshaft", "nether_fortress", "ocean_ruins",
+            "pillager_outpost", "rare", "ruined_portal", "shipwreck", "stronghold", "trial_chambers", "village"})
+    public String table;
+
+    private LootTable lootTable;
+    private LootContext context;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        lootTable = BundledTables.load(table);
+        context = BundledTables.context();
+        random = new SplittableRandom(table.hashCode());
+    }
+
+    @Benchmark
+    public LootRollResult roll() {
+        return LootEngine.roll(lootTable, context, random);
+    }
+}
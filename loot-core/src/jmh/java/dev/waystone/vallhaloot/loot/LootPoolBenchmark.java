@@ -0,0 +1,59 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-entry picks on synthetic pools, by entry count and share of conditional entries.
+ * "keyed" conditions (biome) take the cached per-context sampler path; "unkeyed"
+ * conditions (skill threshold) force the scanning fallback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LootPoolBenchmark {
+    private static final String[] BIOMES = {"PLAINS", "DESERT", "FOREST", "TAIGA", "SWAMP", "JUNGLE"};
+
+    @Param({"4", "16", "64", "256"})
+    public int entries;
+
+    @Param({"0.0", "0.25", "1.0"})
+    public double conditionDensity;
+
+    @Param({"keyed", "unkeyed"})
+    public String conditionKind;
+
+    private LootPool pool;
+    private LootContext context;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(entries * 31L + conditionKind.hashCode());
+        int conditional = (int) Math.round(entries * conditionDensity);
+        List<LootEntry> list = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            List<LootCondition> conditions = List.of();
+            if (i < conditional) {
+                conditions = List.of("keyed".equals(conditionKind)
+                    ? LootCondition.Conditions.biome(BIOMES[i % BIOMES.length])
+                    : LootCondition.Conditions.skillThreshold("mining", i % 20));
+            }
+            list.add(new LootEntry("STONE", 1, 1 + i % 8, 1.0 + random.nextInt(20),
+                null, null, conditions, false));
+        }
+        pool = new LootPool("bench", list, 1, 0.0);
+        context = new LootContext(new UUID(1L, 2L), "bench", 0, 64, 0, "world", new UUID(3L, 4L),
+            42L, "CHEST", "PLAINS", 6000L, 0, false, 0, Map.of("skill_mining", 10));
+    }
+
+    @Benchmark
+    public LootEntry pickEntry() {
+        return pool.pickEntry(context, random);
+    }
+}
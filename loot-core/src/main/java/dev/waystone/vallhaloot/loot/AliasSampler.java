@@ -0,0 +1,90 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Immutable Walker/Vose alias table for O(1) weighted index selection.
+ * Built once at table load; a draw costs two random numbers and one array lookup
+ * and allocates nothing, so a single instance can be shared by every thread.
+ */
+public final class AliasSampler {
+    private final double[] probability;
+    private final int[] alias;
+
+    private AliasSampler(double[] probability, int[] alias) {
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Build a sampler over the given weights. Non-positive weights are never picked.
+     * Returns null if no weight is positive (nothing can be drawn).
+     */
+    public static AliasSampler of(double[] weights) {
+        int n = weights.length;
+        double total = 0.0;
+        for (double weight : weights) {
+            if (weight > 0) {
+                total += weight;
+            }
+        }
+        if (n == 0 || total <= 0) {
+            return null;
+        }
+
+        // Scale weights so the average bucket holds exactly 1.0
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] > 0 ? weights[i] * n / total : 0.0;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Leftovers are full buckets (only off by floating point error)
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+
+        return new AliasSampler(probability, alias);
+    }
+
+    /**
+     * Draw an index with probability proportional to its weight.
+     */
+    public int sample(RandomGenerator random) {
+        int bucket = random.nextInt(probability.length);
+        return random.nextDouble() < probability[bucket] ? bucket : alias[bucket];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,92 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+
+/**
+ * Player data a table's conditions read from the context, beyond world, biome and time.
+ * Collected from the conditions when the table is built, so the snapshot on container
+ * open only fetches what the chosen table can actually test.
+ */
+public final class ContextFacets {
+    public static final ContextFacets NONE = new ContextFacets(List.of(), List.of(), false);
+
+    private final List<String> skills;
+    private final List<String> permissions;
+    private final boolean level;
+    // Resolved LootSymbols slots, parallel to the name lists
+    private final int[] skillSlots;
+    private final int[] permissionSlots;
+
+    private ContextFacets(List<String> skills, List<String> permissions, boolean level) {
+        this.skills = skills;
+        this.permissions = permissions;
+        this.level = level;
+        this.skillSlots = skills.stream().mapToInt(LootSymbols::skill).toArray();
+        this.permissionSlots = permissions.stream().mapToInt(LootSymbols::permission).toArray();
+    }
+
+    /**
+     * Facets required by any condition of any entry in the pools.
+     */
+    public static ContextFacets of(Collection<LootPool> pools) {
+        Builder builder = new Builder();
+        for (LootPool pool : pools) {
+            for (LootEntry entry : pool.getEntries()) {
+                for (LootCondition condition : entry.getConditions()) {
+                    condition.requireFacets(builder);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /** Skill names whose levels must be in the context. */
+    public List<String> getSkills() { return skills; }
+    /** Permission nodes that must be checked at snapshot. */
+    public List<String> getPermissions() { return permissions; }
+    public boolean needsLevel() { return level; }
+    /** Skill slot of getSkills().get(i). */
+    public int getSkillSlot(int i) { return skillSlots[i]; }
+    /** Permission slot of getPermissions().get(i). */
+    public int getPermissionSlot(int i) { return permissionSlots[i]; }
+
+    public boolean isEmpty() {
+        return skills.isEmpty() && permissions.isEmpty() && !level;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextFacets{skills=" + skills + ", permissions=" + permissions + ", level=" + level + "}";
+    }
+
+    /**
+     * Receives the facets a condition reads.
+     */
+    public static final class Builder {
+        private final Set<String> skills = new LinkedHashSet<>();
+        private final Set<String> permissions = new LinkedHashSet<>();
+        private boolean level;
+
+        public Builder skill(String name) {
+            skills.add(name.toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        public Builder permission(String node) {
+            permissions.add(node);
+            return this;
+        }
+
+        public Builder level() {
+            level = true;
+            return this;
+        }
+
+        public ContextFacets build() {
+            if (skills.isEmpty() && permissions.isEmpty() && !level) {
+                return NONE;
+            }
+            return new ContextFacets(List.copyOf(skills), List.copyOf(permissions), level);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Exact drop-rate analysis of a loot table, without sampling.
+ * Each pool draw is a small discrete distribution over the amount of a material;
+ * a pool's rolls and the table's pools are independent, so the per-material
+ * count distribution is their convolution.
+ */
+public class LootAnalyzer {
+    /**
+     * Entries that apply in every context: no conditions, or only always-true ones.
+     */
+    public static final Predicate<LootEntry> UNCONDITIONAL = entry -> {
+        for (LootCondition condition : entry.getConditions()) {
+            if (!"true".equals(condition.signature())) {
+                return false;
+            }
+        }
+        return true;
+    };
+
+    private LootAnalyzer() {}
+
+    /**
+     * Analyze the table as rolled for one context (its conditions decide which entries compete).
+     */
+    public static Report analyze(LootTable table, LootContext context) {
+        return analyze(table, entry -> entry.applies(context, null));
+    }
+
+    /**
+     * Analyze the table counting only entries accepted by the filter, as the engine
+     * would for a context in which exactly those entries apply.
+     */
+    public static Report analyze(LootTable table, Predicate<LootEntry> applies) {
+        // Material -> distribution of the total amount across the whole table
+        Map<String, double[]> totals = new TreeMap<>();
+        Map<String, Double> expectedStacks = new HashMap<>();
+        double expectedStacksPerRoll = 0.0;
+        int excluded = 0;
+
+        for (LootPool pool : table.getPools()) {
+            List<LootEntry> applicable = new ArrayList<>();
+            double totalWeight = 0.0;
+            for (LootEntry entry : pool.getEntries()) {
+                if (entry.getWeight() <= 0) {
+                    continue;
+                }
+                if (!applies.test(entry)) {
+                    excluded++;
+                    continue;
+                }
+                applicable.add(entry);
+                totalWeight += entry.getWeight();
+            }
+            if (applicable.isEmpty()) {
+                continue;
+            }
+
+            int rolls = (int) (pool.getRolls() + pool.getRollBonus());
+            expectedStacksPerRoll += rolls;
+
+            // Amount distribution of one draw, per material (index 0 = material not drawn)
+            Map<String, double[]> perDraw = new HashMap<>();
+            for (LootEntry entry : applicable) {
+                double pick = entry.getWeight() / totalWeight;
+                double[] dist = perDraw.computeIfAbsent(entry.getMaterial(), m -> new double[1]);
+                if (dist.length <= entry.getMaxAmount()) {
+                    dist = Arrays.copyOf(dist, entry.getMaxAmount() + 1);
+                    perDraw.put(entry.getMaterial(), dist);
+                }
+                double perAmount = pick / (entry.getMaxAmount() - entry.getMinAmount() + 1);
+                for (int amount = entry.getMinAmount(); amount <= entry.getMaxAmount(); amount++) {
+                    dist[amount] += perAmount;
+                }
+                expectedStacks.merge(entry.getMaterial(), pick * rolls, Double::sum);
+            }
+
+            for (Map.Entry<String, double[]> draw : perDraw.entrySet()) {
+                double[] dist = draw.getValue();
+                double drawn = 0.0;
+                for (int amount = 1; amount < dist.length; amount++) {
+                    drawn += dist[amount];
+                }
+                dist[0] = Math.max(0.0, 1.0 - drawn);
+
+                double[] poolTotal = power(dist, rolls);
+                double[] current = totals.get(draw.getKey());
+                totals.put(draw.getKey(), current == null ? poolTotal : convolve(current, poolTotal));
+            }
+        }
+
+        List<MaterialRate> rates = new ArrayList<>();
+        for (Map.Entry<String, double[]> total : totals.entrySet()) {
+            double[] dist = total.getValue();
+            double expected = 0.0;
+            for (int amount = 1; amount < dist.length; amount++) {
+                expected += amount * dist[amount];
+            }
+            rates.add(new MaterialRate(total.getKey(), 1.0 - dist[0], expected,
+                expectedStacks.getOrDefault(total.getKey(), 0.0), quantile(dist, 0.99)));
+        }
+        return new Report(table.getName(), table.getRevision(), expectedStacksPerRoll, excluded, rates);
+    }
+
+    /**
+     * Distribution of the sum of n independent draws, by repeated squaring.
+     */
+    private static double[] power(double[] dist, int n) {
+        double[] result = {1.0};
+        double[] base = dist;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                result = convolve(result, base);
+            }
+            n >>= 1;
+            if (n > 0) {
+                base = convolve(base, base);
+            }
+        }
+        return result;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] out = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0.0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                out[i + j] += a[i] * b[j];
+            }
+        }
+        return out;
+    }
+
+    private static int quantile(double[] dist, double fraction) {
+        double cumulative = 0.0;
+        for (int i = 0; i < dist.length; i++) {
+            cumulative += dist[i];
+            // Tolerance for rounding in long convolutions
+            if (cumulative >= fraction - 1e-12) {
+                return i;
+            }
+        }
+        return dist.length - 1;
+    }
+
+    /**
+     * Exact rates for one material across the whole table.
+     */
+    public static final class MaterialRate {
+        private final String material;
+        private final double probability;
+        private final double expectedCount;
+        private final double expectedStacks;
+        private final int p99Count;
+
+        private MaterialRate(String material, double probability, double expectedCount,
+                             double expectedStacks, int p99Count) {
+            this.material = material;
+            this.probability = probability;
+            this.expectedCount = expectedCount;
+            this.expectedStacks = expectedStacks;
+            this.p99Count = p99Count;
+        }
+
+        public String getMaterial() { return material; }
+        /** Probability that a roll contains at least one of this material. */
+        public double getProbability() { return probability; }
+        /** Expected total item count per roll. */
+        public double getExpectedCount() { return expectedCount; }
+        public double getExpectedStacks() { return expectedStacks; }
+        /** 99th percentile of the total item count per roll. */
+        public int getP99Count() { return p99Count; }
+    }
+
+    /**
+     * Exact drop rates for a table, materials sorted by name so reports diff cleanly.
+     */
+    public static final class Report {
+        private final String tableName;
+        private final long revision;
+        private final double expectedStacksPerRoll;
+        private final int excludedEntries;
+        private final List<MaterialRate> materials;
+
+        private Report(String tableName, long revision, double expectedStacksPerRoll,
+                       int excludedEntries, List<MaterialRate> materials) {
+            this.tableName = tableName;
+            this.revision = revision;
+            this.expectedStacksPerRoll = expectedStacksPerRoll;
+            this.excludedEntries = excludedEntries;
+            this.materials = Collections.unmodifiableList(materials);
+        }
+
+        public String getTableName() { return tableName; }
+        public long getRevision() { return revision; }
+        public double getExpectedStacksPerRoll() { return expectedStacksPerRoll; }
+        /** Entries left out because they did not apply (conditional entries in a baseline report). */
+        public int getExcludedEntries() { return excludedEntries; }
+        public List<MaterialRate> getMaterials() { return materials; }
+
+        /**
+         * Plain-text block for the drop-rate report file. Contains no timestamps,
+         * so unchanged tables produce identical output.
+         */
+        public String format() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.ROOT, "== %s (revision %08x) ==%n", tableName, revision));
+            out.append(String.format(Locale.ROOT, "stacks/roll: %.4f%n", expectedStacksPerRoll));
+            if (excludedEntries > 0) {
+                out.append(String.format(Locale.ROOT, "conditional entries excluded: %d%n", excludedEntries));
+            }
+            for (MaterialRate rate : materials) {
+                out.append(String.format(Locale.ROOT, "  %-32s p=%.6f  count=%.4f  stacks=%.4f  p99=%d%n",
+                    rate.getMaterial(), rate.getProbability(), rate.getExpectedCount(),
+                    rate.getExpectedStacks(), rate.getP99Count()));
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.Locale;
+
+/**
+ * Condition for loot entry applicability.
+ * Examples: time of day, biome, world, permission, skill threshold.
+ */
+public interface LootCondition {
+    /**
+     * Test if this condition is satisfied in the given context.
+     */
+    boolean test(LootContext context);
+
+    /**
+     * Stable description of what this condition checks, or null if the result
+     * depends on more than the context's world, biome and day/night state.
+     * Pools group entries by these signatures and cache one sampler per context.
+     */
+    default String signature() {
+        return null;
+    }
+
+    /**
+     * Declare the player data this condition reads, so it is fetched when snapshotting
+     * a context for a table that uses it. World, biome and time are always present.
+     */
+    default void requireFacets(ContextFacets.Builder facets) {
+    }
+
+    /**
+     * Factory for common conditions. Conditions are values: two built from the same
+     * arguments are equal, which lets equal entries be shared (see {@link LootFlyweights}).
+     * Names are interned when the condition is built (at table load), so tests
+     * compare the context's interned ids and never touch strings or maps.
+     */
+    class Conditions {
+        public static LootCondition biome(String requiredBiome) {
+            return new BiomeCondition(LootSymbols.biome(requiredBiome),
+                BiomeCondition.PREFIX + requiredBiome.toLowerCase(Locale.ROOT));
+        }
+
+        public static LootCondition world(String requiredWorld) {
+            return new WorldCondition(LootSymbols.world(requiredWorld),
+                WorldCondition.PREFIX + requiredWorld.toLowerCase(Locale.ROOT));
+        }
+
+        public static LootCondition nightOnly() {
+            return TimeCondition.NIGHT;
+        }
+
+        public static LootCondition dayOnly() {
+            return TimeCondition.DAY;
+        }
+
+        public static LootCondition skillThreshold(String skillName, int minLevel) {
+            return new SkillCondition(skillName, LootSymbols.skill(skillName), minLevel);
+        }
+
+        public static LootCondition permission(String permission) {
+            return new PermissionCondition(permission, LootSymbols.permission(permission));
+        }
+
+        public static LootCondition minLevel(int minLevel) {
+            return new LevelCondition(minLevel);
+        }
+
+        public static LootCondition alwaysTrue() {
+            return AlwaysTrue.INSTANCE;
+        }
+    }
+
+    final class BiomeCondition implements LootCondition {
+        static final String PREFIX = "biome=";
+        private final int biomeId;
+        private final String signature;
+
+        private BiomeCondition(int biomeId, String signature) {
+            this.biomeId = biomeId;
+            this.signature = signature;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            return context.getBiomeId() == biomeId;
+        }
+
+        @Override
+        public String signature() {
+            return signature;
+        }
+
+        String biome() {
+            return signature.substring(PREFIX.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BiomeCondition other && other.biomeId == biomeId && other.signature.equals(signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return signature.hashCode();
+        }
+    }
+
+    final class WorldCondition implements LootCondition {
+        static final String PREFIX = "world=";
+        private final int worldId;
+        private final String signature;
+
+        private WorldCondition(int worldId, String signature) {
+            this.worldId = worldId;
+            this.signature = signature;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            return context.getWorldId() == worldId;
+        }
+
+        @Override
+        public String signature() {
+            return signature;
+        }
+
+        String world() {
+            return signature.substring(PREFIX.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof WorldCondition other && other.worldId == worldId && other.signature.equals(signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return signature.hashCode();
+        }
+    }
+
+    final class TimeCondition implements LootCondition {
+        private static final TimeCondition NIGHT = new TimeCondition(true);
+        private static final TimeCondition DAY = new TimeCondition(false);
+
+        final boolean night;
+
+        private TimeCondition(boolean night) {
+            this.night = night;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            return context.isNight() == night;
+        }
+
+        @Override
+        public String signature() {
+            return night ? "night" : "day";
+        }
+    }
+
+    /**
+     * Unsigned: skill levels aren't part of the condition key, so pools scan these.
+     */
+    final class SkillCondition implements LootCondition {
+        final String skillName;
+        private final int skillSlot;
+        final int minLevel;
+
+        private SkillCondition(String skillName, int skillSlot, int minLevel) {
+            this.skillName = skillName;
+            this.skillSlot = skillSlot;
+            this.minLevel = minLevel;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            int level = context.getSkillLevel(skillSlot);
+            return level != LootContext.MISSING_LEVEL && level >= minLevel;
+        }
+
+        @Override
+        public void requireFacets(ContextFacets.Builder facets) {
+            facets.skill(skillName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SkillCondition other && other.skillSlot == skillSlot && other.minLevel == minLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * skillSlot + minLevel;
+        }
+    }
+
+    /**
+     * Permissions are checked on the main thread at snapshot and stored as bits on the context.
+     */
+    final class PermissionCondition implements LootCondition {
+        final String permission;
+        private final int slot;
+
+        private PermissionCondition(String permission, int slot) {
+            this.permission = permission;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            return context.hasPermission(slot);
+        }
+
+        @Override
+        public void requireFacets(ContextFacets.Builder facets) {
+            facets.permission(permission);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PermissionCondition other && other.slot == slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return slot;
+        }
+    }
+
+    final class LevelCondition implements LootCondition {
+        final int minLevel;
+
+        private LevelCondition(int minLevel) {
+            this.minLevel = minLevel;
+        }
+
+        @Override
+        public boolean test(LootContext context) {
+            return context.getPlayerLevel() >= minLevel;
+        }
+
+        @Override
+        public void requireFacets(ContextFacets.Builder facets) {
+            facets.level();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LevelCondition other && other.minLevel == minLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            return minLevel;
+        }
+    }
+
+    final class AlwaysTrue implements LootCondition {
+        private static final AlwaysTrue INSTANCE = new AlwaysTrue();
+
+        private AlwaysTrue() {}
+
+        @Override
+        public boolean test(LootContext context) {
+            return true;
+        }
+
+        @Override
+        public String signature() {
+            return "true";
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+
+/**
+ * Snapshot of context data for a loot roll.
+ * Safe to use off-thread: immutable, and all fields are primitives, interned ids or immutable values.
+ * Skills and permissions are stored in typed slots indexed by {@link LootSymbols} ids;
+ * derived keys are built on first use and cached.
+ */
+public final class LootContext {
+    /** Skill level of a skill the context has no data for. */
+    public static final int MISSING_LEVEL = Integer.MIN_VALUE;
+    private static final int[] NO_SKILLS = new int[0];
+    private static final long[] NO_PERMISSIONS = new long[0];
+
+    private final UUID playerUUID;
+    private final String playerName;
+    private final int blockX;
+    private final int blockY;
+    private final int blockZ;
+    private final String worldName;
+    private final UUID worldUUID;
+    private final long worldSeed;
+    private final String containerType;
+    private final String biome;
+    private final long worldTime;
+    private final int moonPhase;
+    private final boolean isNight;
+    private final int playerLevel; // ValhallaMMO level placeholder
+    // Interned at snapshot so conditions compare ints (see LootSymbols)
+    private final int biomeId;
+    private final int worldId;
+    private final int[] skillLevels; // by skill slot, MISSING_LEVEL where unknown
+    private final long[] permissions; // bitset by permission slot
+
+    private final Map<String, Object> metadata; // For ValhallaMMO data
+
+    // Cached on first use; racing threads compute the same value
+    private String conditionKey;
+    private String containerKey;
+
+    public LootContext(UUID playerUUID, String playerName, int blockX, int blockY, int blockZ,
+                      String worldName, UUID worldUUID, long worldSeed, String containerType,
+                      String biome, long worldTime, int moonPhase, boolean isNight,
+                      int playerLevel, Map<String, Object> metadata) {
+        this(playerUUID, playerName, blockX, blockY, blockZ, worldName, worldUUID, worldSeed, containerType,
+            biome, worldTime, moonPhase, isNight, playerLevel, skillLevels(metadata), permissions(metadata),
+            copyMetadata(metadata));
+    }
+
+    private LootContext(UUID playerUUID, String playerName, int blockX, int blockY, int blockZ,
+                        String worldName, UUID worldUUID, long worldSeed, String containerType,
+                        String biome, long worldTime, int moonPhase, boolean isNight, int playerLevel,
+                        int[] skillLevels, long[] permissions, Map<String, Object> metadata) {
+        this.playerUUID = playerUUID;
+        this.playerName = playerName;
+        this.blockX = blockX;
+        this.blockY = blockY;
+        this.blockZ = blockZ;
+        this.worldName = worldName;
+        this.worldUUID = worldUUID;
+        this.worldSeed = worldSeed;
+        this.containerType = containerType;
+        this.biome = biome;
+        this.worldTime = worldTime;
+        this.moonPhase = moonPhase;
+        this.isNight = isNight;
+        this.playerLevel = playerLevel;
+        this.biomeId = LootSymbols.biome(biome);
+        this.worldId = LootSymbols.world(worldName);
+        this.skillLevels = skillLevels;
+        this.permissions = permissions;
+        this.metadata = metadata;
+    }
+
+    public static Builder builder(UUID playerUUID, String playerName) {
+        return new Builder(playerUUID, playerName);
+    }
+
+    /**
+     * Immutable copy of the metadata. Null values are dropped, as a missing key reads the same.
+     */
+    private static Map<String, Object> copyMetadata(Map<String, Object> metadata) {
+        Map<String, Object> copy = new HashMap<>(metadata.size() * 2);
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            if (entry.getValue() != null) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return copy.isEmpty() ? Map.of() : Map.copyOf(copy);
+    }
+
+    /**
+     * Resolve "skill_<name>" metadata into a level array indexed by skill slot.
+     */
+    private static int[] skillLevels(Map<String, Object> metadata) {
+        int[] levels = NO_SKILLS;
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            if (entry.getKey().startsWith("skill_") && entry.getValue() instanceof Number level) {
+                levels = withSkill(levels, LootSymbols.skill(entry.getKey().substring("skill_".length())), level.intValue());
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Resolve "perm_<name>" = true metadata into a permission bitset.
+     */
+    private static long[] permissions(Map<String, Object> metadata) {
+        long[] bits = NO_PERMISSIONS;
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            if (entry.getKey().startsWith("perm_") && entry.getValue() == Boolean.TRUE) {
+                bits = withPermission(bits, LootSymbols.permission(entry.getKey().substring("perm_".length())));
+            }
+        }
+        return bits;
+    }
+
+    private static int[] withSkill(int[] levels, int slot, int level) {
+        if (slot >= levels.length) {
+            int oldLength = levels.length;
+            levels = Arrays.copyOf(levels, Math.max(slot + 1, LootSymbols.skillCount()));
+            Arrays.fill(levels, oldLength, levels.length, MISSING_LEVEL);
+        }
+        levels[slot] = level;
+        return levels;
+    }
+
+    private static long[] withPermission(long[] bits, int slot) {
+        if ((slot >> 6) >= bits.length) {
+            bits = Arrays.copyOf(bits, (slot >> 6) + 1);
+        }
+        bits[slot >> 6] |= 1L << slot;
+        return bits;
+    }
+
+    public UUID getPlayerUUID() { return playerUUID; }
+    public String getPlayerName() { return playerName; }
+    public int getBlockX() { return blockX; }
+    public int getBlockY() { return blockY; }
+    public int getBlockZ() { return blockZ; }
+    public String getWorldName() { return worldName; }
+    public UUID getWorldUUID() { return worldUUID; }
+    public long getWorldSeed() { return worldSeed; }
+    public String getContainerType() { return containerType; }
+    public String getBiome() { return biome; }
+    public long getWorldTime() { return worldTime; }
+    public int getMoonPhase() { return moonPhase; }
+    public boolean isNight() { return isNight; }
+    public int getPlayerLevel() { return playerLevel; }
+    public int getBiomeId() { return biomeId; }
+    public int getWorldId() { return worldId; }
+
+    /**
+     * Key over everything a signed {@link LootCondition} can read: world, biome and day/night.
+     * Two contexts with the same key always match the same entries.
+     */
+    public String getConditionKey() {
+        String key = conditionKey;
+        if (key == null) {
+            key = worldName + '|' + biome + '|' + (isNight ? 'N' : 'D');
+            conditionKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Level for a skill slot from {@link LootSymbols#skill}, or {@link #MISSING_LEVEL}.
+     */
+    public int getSkillLevel(int slot) {
+        return slot < skillLevels.length ? skillLevels[slot] : MISSING_LEVEL;
+    }
+
+    /**
+     * Whether the player had a permission slot from {@link LootSymbols#permission} at snapshot time.
+     */
+    public boolean hasPermission(int slot) {
+        int word = slot >> 6;
+        return word < permissions.length && (permissions[word] & (1L << slot)) != 0;
+    }
+
+    public Map<String, Object> getMetadata() { return metadata; }
+
+    /**
+     * Get metadata value for ValhallaMMO integration.
+     */
+    public Object getMetadata(String key) {
+        return metadata.get(key);
+    }
+
+    /**
+     * Unique key for this container location.
+     */
+    public String getContainerKey() {
+        String key = containerKey;
+        if (key == null) {
+            key = containerKey(worldUUID, blockX, blockY, blockZ);
+            containerKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Container key for a block position, matching {@link #getContainerKey()}:
+     * the first 8 hex digits of the world UUID, then x_y_z.
+     */
+    public static String containerKey(UUID worldUUID, int x, int y, int z) {
+        // Same text as UUID.toString().substring(0, 8), without building the full UUID string
+        String prefix = Long.toHexString((worldUUID.getMostSignificantBits() >>> 32) | 0x1_0000_0000L).substring(1);
+        return new StringBuilder(32).append(prefix)
+            .append('_').append(x).append('_').append(y).append('_').append(z)
+            .toString();
+    }
+
+    @Override
+    public String toString() {
+        return "LootContext{" +
+                "player=" + playerName + " (" + playerUUID + ")," +
+                "location=" + blockX + "," + blockY + "," + blockZ +
+                ", world=" + worldName +
+                ", container=" + containerType +
+                ", biome=" + biome +
+                '}';
+    }
+
+    /**
+     * Assembles a context without intermediate maps: skills and permissions go straight
+     * into their typed slots.
+     */
+    public static final class Builder {
+        private final UUID playerUUID;
+        private final String playerName;
+        private int blockX;
+        private int blockY;
+        private int blockZ;
+        private String worldName;
+        private UUID worldUUID;
+        private long worldSeed;
+        private String containerType;
+        private String biome;
+        private long worldTime;
+        private int moonPhase;
+        private boolean night;
+        private int playerLevel;
+        private int[] skillLevels = NO_SKILLS;
+        private long[] permissions = NO_PERMISSIONS;
+        private Map<String, Object> metadata = Map.of();
+
+        private Builder(UUID playerUUID, String playerName) {
+            this.playerUUID = playerUUID;
+            this.playerName = playerName;
+        }
+
+        public Builder world(String worldName, UUID worldUUID, long worldSeed) {
+            this.worldName = worldName;
+            this.worldUUID = worldUUID;
+            this.worldSeed = worldSeed;
+            return this;
+        }
+
+        public Builder position(int x, int y, int z) {
+            this.blockX = x;
+            this.blockY = y;
+            this.blockZ = z;
+            return this;
+        }
+
+        public Builder container(String containerType) {
+            this.containerType = containerType;
+            return this;
+        }
+
+        public Builder biome(String biome) {
+            this.biome = biome;
+            return this;
+        }
+
+        public Builder time(long worldTime, int moonPhase, boolean night) {
+            this.worldTime = worldTime;
+            this.moonPhase = moonPhase;
+            this.night = night;
+            return this;
+        }
+
+        public Builder playerLevel(int playerLevel) {
+            this.playerLevel = playerLevel;
+            return this;
+        }
+
+        public Builder skill(int slot, int level) {
+            this.skillLevels = withSkill(skillLevels, slot, level);
+            return this;
+        }
+
+        public Builder permission(int slot) {
+            this.permissions = withPermission(permissions, slot);
+            return this;
+        }
+
+        public Builder metadata(Map<String, Object> metadata) {
+            this.metadata = metadata == null ? Map.of() : copyMetadata(metadata);
+            return this;
+        }
+
+        public LootContext build() {
+            // Slots are copied so a reused builder can't change a built context
+            return new LootContext(playerUUID, playerName, blockX, blockY, blockZ, worldName, worldUUID,
+                worldSeed, containerType, biome, worldTime, moonPhase, night, playerLevel,
+                skillLevels.clone(), permissions.clone(), metadata);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+
+/**
+ * One stack produced by a roll, as plain data.
+ * The server side turns drops into items when they are placed in a container.
+ */
+public final class LootDrop {
+    private final String material;
+    private final int amount;
+    private final String displayName;
+    private final List<String> lore;
+    private final LootEntry entry;
+
+    /**
+     * @param material material name, e.g. "DIAMOND"
+     * @param entry entry that produced the drop, or null for drops added by modifiers
+     */
+    public LootDrop(String material, int amount, String displayName, List<String> lore, LootEntry entry) {
+        this.material = material;
+        this.amount = amount;
+        this.displayName = displayName;
+        this.lore = lore != null ? List.copyOf(lore) : List.of();
+        this.entry = entry;
+    }
+
+    /**
+     * A plain stack of a material with no name or lore.
+     */
+    public static LootDrop of(String material, int amount) {
+        return new LootDrop(material, amount, null, null, null);
+    }
+
+    public String getMaterial() { return material; }
+    public int getAmount() { return amount; }
+    public String getDisplayName() { return displayName; }
+    public List<String> getLore() { return lore; }
+    /** Entry the drop was rolled from; lets the server side reuse a per-entry item template. */
+    public LootEntry getEntry() { return entry; }
+
+    @Override
+    public String toString() {
+        return "LootDrop{" + material + " x" + amount + "}";
+    }
+}
@@ -0,0 +1,202 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Pure loot computation engine.
+ * Thread-safe: has no server dependency and produces plain {@link LootDrop}s,
+ * so it can be called from any thread (or outside a server entirely).
+ */
+public class LootEngine {
+    private static volatile LootRandomProvider randomProvider = LootRandomProvider.THREAD_LOCAL;
+    // Reused per thread while rolling; results copy out of it, so it never escapes a roll
+    private static final ThreadLocal<List<LootDrop>> SCRATCH = ThreadLocal.withInitial(() -> new ArrayList<>(27));
+    private static final Object BATCH_POOL_LOCK = new Object();
+    private static ForkJoinPool batchPool;
+
+    /**
+     * Replace the source of per-roll random streams (e.g. deterministic seeding).
+     */
+    public static void setRandomProvider(LootRandomProvider provider) {
+        randomProvider = provider != null ? provider : LootRandomProvider.THREAD_LOCAL;
+    }
+
+    public static LootRandomProvider getRandomProvider() {
+        return randomProvider;
+    }
+
+    /**
+     * Roll loot from a table with a given context.
+     * This is safe to call from any thread.
+     * 
+     * @param table The loot table to roll from
+     * @param context The loot context (player, location, conditions)
+     * @return The drops to be placed in the container
+     */
+    public static LootRollResult roll(LootTable table, LootContext context) {
+        RandomGenerator random = table != null ? randomProvider.forRoll(table, context) : null;
+        return roll(table, context, random);
+    }
+
+    /**
+     * Roll loot using an explicit random stream, e.g. one seeded to recompute an earlier roll.
+     */
+    public static LootRollResult roll(LootTable table, LootContext context, RandomGenerator random) {
+        long startTime = System.currentTimeMillis();
+        List<LootDrop> drops = SCRATCH.get();
+        drops.clear();
+
+        if (table == null) {
+            return new LootRollResult(null, 0L, drops, System.currentTimeMillis() - startTime, context, random);
+        }
+
+        rollEntries(table, context, random, (entry, amount) -> drops.add(entry.createDrop(amount)));
+
+        long rollTime = System.currentTimeMillis() - startTime;
+        LootRollResult result = new LootRollResult(table.getName(), table.getRevision(), drops, rollTime, context, random);
+        drops.clear();
+        return result;
+    }
+
+    /**
+     * Receives each entry picked by a roll together with its rolled amount.
+     */
+    @FunctionalInterface
+    public interface EntrySink {
+        void accept(LootEntry entry, int amount);
+    }
+
+    /**
+     * Roll a table without building any drops, reporting each pick to the sink.
+     * Used for simulations and analysis where only the entries and amounts matter.
+     */
+    public static void rollEntries(LootTable table, LootContext context, RandomGenerator random, EntrySink sink) {
+        // Roll each pool
+        for (LootPool pool : table.getPools()) {
+            int rolls = (int) (pool.getRolls() + pool.getRollBonus());
+            for (int i = 0; i < rolls; i++) {
+                LootEntry entry = pool.pickEntry(context, random);
+                if (entry != null) {
+                    sink.accept(entry, entry.getRandomAmount(random));
+                }
+            }
+        }
+    }
+
+    /**
+     * Roll one table for many containers in parallel on the engine's ForkJoinPool.
+     * Results are returned in the same order as the contexts.
+     * Blocks until every roll is done: call from an async task, never the main thread.
+     */
+    public static List<LootRollResult> rollBatch(LootTable table, List<LootContext> contexts) {
+        return rollBatch(i -> table, contexts);
+    }
+
+    /**
+     * Roll tables.get(i) for contexts.get(i), in parallel, preserving input order.
+     * Blocks until every roll is done: call from an async task, never the main thread.
+     */
+    public static List<LootRollResult> rollBatch(List<LootTable> tables, List<LootContext> contexts) {
+        if (tables.size() != contexts.size()) {
+            throw new IllegalArgumentException("Expected one table per context, got " +
+                tables.size() + " tables for " + contexts.size() + " contexts");
+        }
+        return rollBatch(tables::get, contexts);
+    }
+
+    private static List<LootRollResult> rollBatch(IntFunction<LootTable> tableAt, List<LootContext> contexts) {
+        int size = contexts.size();
+        if (size == 0) {
+            return List.of();
+        }
+        // RandomAccess lets workers index into their slice without copying
+        List<LootContext> indexed = contexts instanceof RandomAccess ? contexts : new ArrayList<>(contexts);
+        LootRollResult[] results = new LootRollResult[size];
+        ForkJoinPool pool = batchPool();
+        int leafSize = Math.max(16, size / (pool.getParallelism() * 4));
+        pool.invoke(new BatchRollTask(tableAt, indexed, results, 0, size, leafSize));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Pool dedicated to batch rolls and simulations, created on first use and sized to the CPU count.
+     */
+    static ForkJoinPool batchPool() {
+        synchronized (BATCH_POOL_LOCK) {
+            if (batchPool == null || batchPool.isShutdown()) {
+                batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("ValhallaLoot-Roll-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+            }
+            return batchPool;
+        }
+    }
+
+    /**
+     * Stop the batch roll pool. Called on plugin disable; the next batch recreates it.
+     */
+    public static void shutdownBatchPool() {
+        synchronized (BATCH_POOL_LOCK) {
+            if (batchPool != null) {
+                batchPool.shutdownNow();
+                batchPool = null;
+            }
+        }
+    }
+
+    /**
+     * Splits a batch in halves until slices are small, then rolls each slice in place.
+     */
+    private static final class BatchRollTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // ForkJoinTask is Serializable, but these tasks never leave the pool
+        private final transient IntFunction<LootTable> tableAt;
+        private final transient List<LootContext> contexts;
+        private final transient LootRollResult[] results;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private BatchRollTask(IntFunction<LootTable> tableAt, List<LootContext> contexts,
+                              LootRollResult[] results, int from, int to, int leafSize) {
+            this.tableAt = tableAt;
+            this.contexts = contexts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    results[i] = roll(tableAt.apply(i), contexts.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchRollTask(tableAt, contexts, results, from, mid, leafSize),
+                      new BatchRollTask(tableAt, contexts, results, mid, to, leafSize));
+        }
+    }
+
+    /**
+     * Modify loot rolls based on external factors (e.g., ValhallaMMO skills).
+     * Can apply multipliers, add extra rolls, or reroll items.
+     */
+    public static void applyModifier(LootRollResult result, LootModifier modifier) {
+        if (modifier != null) {
+            modifier.modify(result);
+        }
+    }
+}
@@ -1,15 +1,14 @@
 package dev.waystone.vallhaloot.loot;
 
-import org.bukkit.Material;
-
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * A single item entry in a loot pool.
  * Describes an item type, amount, weight, and conditions.
  */
 public class LootEntry {
-    private final Material material;
+    private final String material;
     private final int minAmount;
     private final int maxAmount;
     private final double weight;
@@ -18,7 +17,10 @@ public class LootEntry {
     private final List<LootCondition> conditions;
     private final boolean overwrite;
 
-    public LootEntry(Material material, int minAmount, int maxAmount, double weight,
+    /**
+     * @param material material name, e.g. "DIAMOND"; resolved and validated by the loader
+     */
+    public LootEntry(String material, int minAmount, int maxAmount, double weight,
                     String displayName, List<String> lore, 
                     List<LootCondition> conditions, boolean overwrite) {
         this.material = material;
@@ -26,12 +28,12 @@ public class LootEntry {
         this.maxAmount = Math.max(this.minAmount, maxAmount);
         this.weight = weight;
         this.displayName = displayName;
-        this.lore = lore != null ? new ArrayList<>(lore) : new ArrayList<>();
-        this.conditions = conditions != null ? new ArrayList<>(conditions) : new ArrayList<>();
+        this.lore = lore != null ? List.copyOf(lore) : List.of();
+        this.conditions = conditions != null ? List.copyOf(conditions) : List.of();
         this.overwrite = overwrite;
     }
 
-    public Material getMaterial() { return material; }
+    public String getMaterial() { return material; }
     public int getMinAmount() { return minAmount; }
     public int getMaxAmount() { return maxAmount; }
     public double getWeight() { return weight; }
@@ -40,10 +42,17 @@ public class LootEntry {
     public List<LootCondition> getConditions() { return Collections.unmodifiableList(conditions); }
     public boolean isOverwrite() { return overwrite; }
 
+    /**
+     * Describe one stack of this entry. Plain data, safe to create on any thread.
+     */
+    public LootDrop createDrop(int amount) {
+        return new LootDrop(material, amount, displayName, lore, this);
+    }
+
     /**
      * Check if this entry applies given the context.
      */
-    public boolean applies(LootContext context, Random random) {
+    public boolean applies(LootContext context, RandomGenerator random) {
         for (LootCondition condition : conditions) {
             if (!condition.test(context)) {
                 return false;
@@ -55,7 +64,7 @@ public class LootEntry {
     /**
      * Get a random amount between min and max.
      */
-    public int getRandomAmount(Random random) {
+    public int getRandomAmount(RandomGenerator random) {
         if (minAmount == maxAmount) {
             return minAmount;
         }
@@ -0,0 +1,99 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of equal entries, pools, lore lists and strings, so tables that
+ * repeat the same entry share one object (and so one item prototype, which is keyed
+ * by entry identity).
+ *
+ * Used for one table load: seed it with the tables that stay loaded, then build the
+ * new ones through it. Thread-safe, so files parsed in parallel share it.
+ */
+public final class LootFlyweights {
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<List<String>, List<String>> lore = new ConcurrentHashMap<>();
+    private final Map<EntryKey, LootEntry> entries = new ConcurrentHashMap<>();
+    private final Map<PoolKey, LootPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Register a table's pools and entries, so equal ones built later reuse them.
+     */
+    public void seed(LootTable table) {
+        for (LootPool pool : table.getPools()) {
+            seed(pool);
+        }
+    }
+
+    public void seed(LootPool pool) {
+        List<LootEntry> canonical = new ArrayList<>(pool.getEntries().size());
+        for (LootEntry entry : pool.getEntries()) {
+            canonical.add(entry(entry));
+        }
+        pools.putIfAbsent(new PoolKey(pool.getName(), canonical, pool.getRolls(), pool.getRollBonus()), pool);
+    }
+
+    /**
+     * The canonical entry equal to this one; the entry itself if it is the first.
+     */
+    public LootEntry entry(LootEntry entry) {
+        return entries.computeIfAbsent(EntryKey.of(entry), key -> entry);
+    }
+
+    public String string(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    public List<String> lore(List<String> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return List.of();
+        }
+        List<String> copy = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            copy.add(string(line));
+        }
+        return lore.computeIfAbsent(List.copyOf(copy), key -> key);
+    }
+
+    /**
+     * An entry equal to the given values: an existing one if there is one, else a new one.
+     */
+    public LootEntry entry(String material, int minAmount, int maxAmount, double weight,
+                           String displayName, List<String> lore, List<LootCondition> conditions, boolean overwrite) {
+        return entry(new LootEntry(string(material), minAmount, maxAmount, weight,
+            string(displayName), lore(lore), conditions, overwrite));
+    }
+
+    /**
+     * A pool equal to the given values. Entries are made canonical first, and a new
+     * pool (and its samplers) is only compiled if no equal pool exists.
+     */
+    public LootPool pool(String name, List<LootEntry> poolEntries, int rolls, double rollBonus) {
+        List<LootEntry> canonical = new ArrayList<>(poolEntries.size());
+        for (LootEntry entry : poolEntries) {
+            canonical.add(entry(entry));
+        }
+        return pools.computeIfAbsent(new PoolKey(string(name), List.copyOf(canonical), rolls, rollBonus),
+            key -> new LootPool(key.name(), key.entries(), key.rolls(), key.rollBonus()));
+    }
+
+    public int entryCount() { return entries.size(); }
+    public int poolCount() { return pools.size(); }
+
+    private record EntryKey(String material, int minAmount, int maxAmount, double weight, String displayName,
+                            List<String> lore, List<LootCondition> conditions, boolean overwrite) {
+        static EntryKey of(LootEntry entry) {
+            return new EntryKey(entry.getMaterial(), entry.getMinAmount(), entry.getMaxAmount(), entry.getWeight(),
+                entry.getDisplayName(), entry.getLore(), entry.getConditions(), entry.isOverwrite());
+        }
+    }
+
+    // Entries are canonical, so the list compares them by identity
+    private record PoolKey(String name, List<LootEntry> entries, int rolls, double rollBonus) {
+    }
+}
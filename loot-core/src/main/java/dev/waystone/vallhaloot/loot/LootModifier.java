@@ -0,0 +1,32 @@
+package dev.waystone.vallhaloot.loot;
+
+/**
+ * Interface for loot modification by external sources (e.g., ValhallaMMO).
+ * {@link #stage()} declares which thread {@link #modify} may run on.
+ */
+public interface LootModifier {
+    /**
+     * When a modifier runs.
+     */
+    enum Stage {
+        /** With the roll, possibly off the main thread: must only use the result and its context. */
+        ROLL,
+        /** On the main thread, just before the drops are placed: may use the server API. */
+        APPLY
+    }
+
+    /**
+     * Modify the loot roll result based on player stats, skills, perks, etc.
+     * Can add items, remove items, apply luck multipliers, etc.
+     *
+     * @param result The loot roll result to modify
+     */
+    void modify(LootRollResult result);
+
+    /**
+     * Stage this modifier runs in. Pure modifiers keep the default and run off the main thread.
+     */
+    default Stage stage() {
+        return Stage.ROLL;
+    }
+}
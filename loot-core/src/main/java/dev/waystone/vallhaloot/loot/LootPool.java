@@ -0,0 +1,254 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * A pool of loot entries with weighted selection.
+ * Entries are partitioned by the signature of their conditions on construction
+ * (i.e. at table load). Picking resolves the context to a cached alias table
+ * with one hash lookup, so a roll is O(1) and allocation-free once warm.
+ */
+public class LootPool {
+    // Bound per pool; worlds x biomes x day/night rarely exceeds a few hundred keys
+    private static final int MAX_CACHED_CONTEXTS = 512;
+
+    private final String name;
+    private final List<LootEntry> entries;
+    private final int rolls;
+    private final double rollBonus;
+
+    // Compiled at load time: unconditional entries share one alias table,
+    // conditional entries are grouped by condition signature
+    private final LootEntry[] unconditionalEntries;
+    private final AliasSampler unconditionalSampler;
+    private final double unconditionalWeight;
+    private final LootEntry[] conditionalEntries;
+    private final ConditionGroup[] groups;
+    private final boolean contextKeyed;
+
+    // Context condition key -> sampler, and group match mask -> sampler so that
+    // contexts matching the same groups share one compiled table
+    private final Map<String, CompiledSampler> samplersByContext = new ConcurrentHashMap<>();
+    private final Map<BitSet, CompiledSampler> samplersByMask = new ConcurrentHashMap<>();
+
+    public LootPool(String name, List<LootEntry> entries, int rolls, double rollBonus) {
+        this.name = name;
+        this.entries = new ArrayList<>(entries);
+        this.rolls = Math.max(1, rolls);
+        this.rollBonus = rollBonus;
+
+        List<LootEntry> unconditional = new ArrayList<>();
+        List<LootEntry> conditional = new ArrayList<>();
+        Map<String, List<LootEntry>> bySignature = new LinkedHashMap<>();
+        boolean keyed = true;
+        for (LootEntry entry : this.entries) {
+            if (entry.getConditions().isEmpty()) {
+                unconditional.add(entry);
+                continue;
+            }
+            conditional.add(entry);
+            String signature = signatureOf(entry);
+            if (signature == null) {
+                keyed = false;
+            } else {
+                bySignature.computeIfAbsent(signature, k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        double[] weights = new double[unconditional.size()];
+        double total = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = unconditional.get(i).getWeight();
+            if (weights[i] > 0) {
+                total += weights[i];
+            }
+        }
+        this.unconditionalEntries = unconditional.toArray(new LootEntry[0]);
+        this.unconditionalSampler = AliasSampler.of(weights);
+        this.unconditionalWeight = unconditionalSampler != null ? total : 0.0;
+        this.conditionalEntries = conditional.toArray(new LootEntry[0]);
+        this.contextKeyed = keyed;
+
+        List<ConditionGroup> compiledGroups = new ArrayList<>();
+        for (List<LootEntry> group : bySignature.values()) {
+            compiledGroups.add(new ConditionGroup(group.get(0), group.toArray(new LootEntry[0])));
+        }
+        this.groups = compiledGroups.toArray(new ConditionGroup[0]);
+    }
+
+    public String getName() { return name; }
+    public List<LootEntry> getEntries() { return Collections.unmodifiableList(entries); }
+    public int getRolls() { return rolls; }
+    public double getRollBonus() { return rollBonus; }
+
+    /**
+     * True if no entry has conditions, so a roll never reads the context.
+     */
+    public boolean isContextFree() {
+        return conditionalEntries.length == 0;
+    }
+
+    /**
+     * Pick a random entry from this pool based on weights.
+     * Returns null if no entries apply to the context.
+     */
+    public LootEntry pickEntry(LootContext context, RandomGenerator random) {
+        if (conditionalEntries.length == 0) {
+            return unconditionalSampler != null
+                ? unconditionalEntries[unconditionalSampler.sample(random)]
+                : null;
+        }
+
+        if (contextKeyed) {
+            CompiledSampler compiled = samplersByContext.get(context.getConditionKey());
+            if (compiled == null) {
+                compiled = compileFor(context);
+            }
+            return compiled.pick(random);
+        }
+
+        return pickScanning(context, random);
+    }
+
+    /**
+     * Drop all cached per-context samplers. Called when tables are reloaded.
+     */
+    public void invalidateSamplerCache() {
+        samplersByContext.clear();
+        samplersByMask.clear();
+    }
+
+    /**
+     * Resolve which condition groups apply to this context and fetch or build
+     * the alias table over the unconditional entries plus those groups.
+     */
+    private CompiledSampler compileFor(LootContext context) {
+        BitSet mask = new BitSet(groups.length);
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].matches(context)) {
+                mask.set(i);
+            }
+        }
+
+        CompiledSampler compiled = samplersByMask.computeIfAbsent(mask, m -> {
+            List<LootEntry> applicable = new ArrayList<>(Arrays.asList(unconditionalEntries));
+            for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+                applicable.addAll(Arrays.asList(groups[i].entries));
+            }
+            return CompiledSampler.of(applicable);
+        });
+
+        if (samplersByContext.size() >= MAX_CACHED_CONTEXTS) {
+            samplersByContext.clear();
+        }
+        samplersByContext.put(context.getConditionKey(), compiled);
+        return compiled;
+    }
+
+    /**
+     * Fallback for pools with conditions that read more than the condition key
+     * (skills, permissions, custom conditions): test every conditional entry.
+     */
+    private LootEntry pickScanning(LootContext context, RandomGenerator random) {
+        // The unconditional block competes as one weight against
+        // whichever conditional entries apply to this context
+        double conditionalWeight = 0.0;
+        for (LootEntry entry : conditionalEntries) {
+            if (entry.getWeight() > 0 && entry.applies(context, random)) {
+                conditionalWeight += entry.getWeight();
+            }
+        }
+
+        double totalWeight = unconditionalWeight + conditionalWeight;
+        if (totalWeight <= 0) {
+            return null;
+        }
+
+        double pick = random.nextDouble() * totalWeight;
+        if (pick < unconditionalWeight) {
+            return unconditionalEntries[unconditionalSampler.sample(random)];
+        }
+
+        double cumulative = unconditionalWeight;
+        LootEntry last = null;
+        for (LootEntry entry : conditionalEntries) {
+            if (entry.getWeight() > 0 && entry.applies(context, random)) {
+                cumulative += entry.getWeight();
+                last = entry;
+                if (pick < cumulative) {
+                    return entry;
+                }
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * Sorted, joined condition signatures of an entry, or null if any condition is unsigned.
+     */
+    private static String signatureOf(LootEntry entry) {
+        List<String> signatures = new ArrayList<>();
+        for (LootCondition condition : entry.getConditions()) {
+            String signature = condition.signature();
+            if (signature == null) {
+                return null;
+            }
+            signatures.add(signature);
+        }
+        Collections.sort(signatures);
+        return String.join("&", signatures);
+    }
+
+    @Override
+    public String toString() {
+        return "LootPool{" + name + ", " + entries.size() + " entries, " + rolls + " rolls}";
+    }
+
+    /**
+     * Entries sharing one condition signature; the representative's conditions are tested once per context.
+     */
+    private static final class ConditionGroup {
+        private final LootEntry representative;
+        private final LootEntry[] entries;
+
+        private ConditionGroup(LootEntry representative, LootEntry[] entries) {
+            this.representative = representative;
+            this.entries = entries;
+        }
+
+        private boolean matches(LootContext context) {
+            return representative.applies(context, null);
+        }
+    }
+
+    /**
+     * Alias table over the entries applicable to one group of contexts.
+     */
+    private static final class CompiledSampler {
+        private static final CompiledSampler EMPTY = new CompiledSampler(new LootEntry[0], null);
+
+        private final LootEntry[] entries;
+        private final AliasSampler sampler;
+
+        private CompiledSampler(LootEntry[] entries, AliasSampler sampler) {
+            this.entries = entries;
+            this.sampler = sampler;
+        }
+
+        private static CompiledSampler of(List<LootEntry> applicable) {
+            double[] weights = new double[applicable.size()];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = applicable.get(i).getWeight();
+            }
+            AliasSampler sampler = AliasSampler.of(weights);
+            return sampler != null ? new CompiledSampler(applicable.toArray(new LootEntry[0]), sampler) : EMPTY;
+        }
+
+        private LootEntry pick(RandomGenerator random) {
+            return sampler != null ? entries[sampler.sample(random)] : null;
+        }
+    }
+}
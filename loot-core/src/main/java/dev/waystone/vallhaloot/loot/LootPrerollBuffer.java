@@ -0,0 +1,88 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded buffers of rolls made ahead of time, one per context-free table.
+ * Taking a roll is a non-blocking poll, so loot can be applied in the same tick
+ * the container is opened. A buffer refills in the background once it drops to
+ * the low-water mark; at most one refill per table runs at a time.
+ */
+public class LootPrerollBuffer {
+    private final int capacity;
+    private final int lowWater;
+    private final Executor refillExecutor;
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    public LootPrerollBuffer(int capacity, int lowWater, Executor refillExecutor) {
+        this.capacity = Math.max(1, capacity);
+        this.lowWater = Math.max(0, Math.min(lowWater, this.capacity - 1));
+        this.refillExecutor = refillExecutor;
+    }
+
+    /**
+     * Take a ready roll of the table, or null if none is buffered (or the table
+     * depends on the context). The result still carries no context; callers rebind it
+     * with {@link LootRollResult#withContext}. Called from the main thread.
+     */
+    public LootRollResult poll(LootTable table) {
+        if (!table.isContextFree()) {
+            return null;
+        }
+        Ring ring = rings.get(table.getName());
+        if (ring == null || ring.table != table) {
+            // First use, or the table was reloaded: rolls of the old instance are dropped
+            ring = new Ring(table, capacity);
+            rings.put(table.getName(), ring);
+        }
+        LootRollResult result = ring.results.poll();
+        if (ring.results.size() <= lowWater) {
+            scheduleRefill(ring);
+        }
+        return result;
+    }
+
+    /**
+     * Drop every buffered roll, e.g. when tables are reloaded.
+     */
+    public void clear() {
+        rings.clear();
+    }
+
+    private void scheduleRefill(Ring ring) {
+        if (!ring.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        refillExecutor.execute(() -> {
+            try {
+                while (ring.results.remainingCapacity() > 0) {
+                    LootRollResult result = LootEngine.roll(ring.table, null,
+                        LootRandomProvider.THREAD_LOCAL.forRoll(ring.table, null));
+                    if (!ring.results.offer(result)) {
+                        break;
+                    }
+                }
+            } finally {
+                ring.refilling.set(false);
+            }
+        });
+    }
+
+    /**
+     * Ring buffer of rolls for one table instance.
+     */
+    private static final class Ring {
+        private final LootTable table;
+        private final ArrayBlockingQueue<LootRollResult> results;
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        private Ring(LootTable table, int capacity) {
+            this.table = table;
+            this.results = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
+
+/**
+ * Supplies the random stream used for one loot roll.
+ * The returned generator is owned by that roll only, so it may be handed to
+ * modifiers on another thread without sharing state with concurrent rolls.
+ */
+@FunctionalInterface
+public interface LootRandomProvider {
+    /**
+     * Per-thread SplittableRandom roots, split once per roll. No shared state, no CAS contention.
+     */
+    LootRandomProvider THREAD_LOCAL = new LootRandomProvider() {
+        private final SplittableRandom seeder = new SplittableRandom();
+        private final ThreadLocal<SplittableRandom> roots = ThreadLocal.withInitial(this::newRoot);
+
+        private SplittableRandom newRoot() {
+            synchronized (seeder) {
+                return seeder.split();
+            }
+        }
+
+        @Override
+        public RandomGenerator forRoll(LootTable table, LootContext context) {
+            return roots.get().split();
+        }
+    };
+
+    /**
+     * Seeds every roll from (world seed, container key, player UUID, table revision),
+     * so the same player always rolls the same loot for the same chest and table version.
+     */
+    LootRandomProvider DETERMINISTIC = (table, context) -> new SplittableRandom(seedFor(table, context));
+
+    RandomGenerator forRoll(LootTable table, LootContext context);
+
+    /**
+     * Resolve a provider from its config name ("thread-local" or "deterministic").
+     */
+    static LootRandomProvider fromString(String mode) {
+        if (mode != null && mode.equalsIgnoreCase("deterministic")) {
+            return DETERMINISTIC;
+        }
+        return THREAD_LOCAL;
+    }
+
+    /**
+     * Stable seed for a player's roll of a table at a container.
+     * Only depends on persistent identifiers, so it survives restarts.
+     */
+    static long seedFor(LootTable table, LootContext context) {
+        return seedFor(context.getWorldSeed(), context.getContainerKey(), context.getPlayerUUID(),
+            table.getName(), table.getRevision());
+    }
+
+    static long seedFor(long worldSeed, String containerKey, UUID playerUUID, String tableName, long tableRevision) {
+        long h = mix(worldSeed);
+        h = mix(h ^ fnv64(containerKey));
+        if (playerUUID != null) {
+            h = mix(h ^ playerUUID.getMostSignificantBits());
+            h = mix(h ^ playerUUID.getLeastSignificantBits());
+        }
+        h = mix(h ^ fnv64(tableName));
+        return mix(h ^ tableRevision);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * FNV-1a over UTF-8 bytes; unlike String.hashCode it uses all 64 bits.
+     */
+    private static long fnv64(String value) {
+        long h = 0xcbf29ce484222325L;
+        if (value == null) {
+            return h;
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
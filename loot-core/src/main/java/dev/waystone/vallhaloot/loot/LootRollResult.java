@@ -0,0 +1,63 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Result of a loot roll: list of drops to be placed in a container.
+ */
+public class LootRollResult {
+    private final List<LootDrop> drops;
+    private final String tableName;
+    private final long tableRevision;
+    private final long rollTimeMs;
+    private final LootContext context;
+    private final RandomGenerator random;
+
+    public LootRollResult(String tableName, long tableRevision, List<LootDrop> drops, long rollTimeMs,
+                          LootContext context, RandomGenerator random) {
+        this.tableName = tableName;
+        this.tableRevision = tableRevision;
+        this.drops = new ArrayList<>(drops);
+        this.rollTimeMs = rollTimeMs;
+        this.context = context;
+        this.random = random;
+    }
+
+    public String getTableName() { return tableName; }
+    /** {@link LootTable#getRevision()} of the table this was rolled from, 0 if none. */
+    public long getTableRevision() { return tableRevision; }
+    public List<LootDrop> getDrops() { return Collections.unmodifiableList(drops); }
+    public long getRollTimeMs() { return rollTimeMs; }
+    public LootContext getContext() { return context; }
+    /**
+     * Random stream of this roll. Modifiers draw from it so deterministic rolls stay reproducible.
+     */
+    public RandomGenerator getRandom() { return random; }
+
+    /**
+     * Rebind a roll made ahead of time to the context it is finally used for.
+     */
+    public LootRollResult withContext(LootContext context) {
+        return new LootRollResult(tableName, tableRevision, drops, rollTimeMs, context, random);
+    }
+
+    /**
+     * Adds a single drop to the loot result. Intended for modifiers/integrations.
+     */
+    public void addDrop(LootDrop drop) {
+        if (drop != null) drops.add(drop);
+    }
+
+    /**
+     * Adds multiple drops to the loot result. Intended for modifiers/integrations.
+     */
+    public void addDrops(Collection<LootDrop> toAdd) {
+        if (toAdd != null && !toAdd.isEmpty()) drops.addAll(toAdd);
+    }
+
+    @Override
+    public String toString() {
+        return "LootRollResult{" + tableName + ", " + drops.size() + " drops, " + rollTimeMs + "ms}";
+    }
+}
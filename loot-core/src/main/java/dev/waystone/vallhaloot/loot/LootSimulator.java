@@ -0,0 +1,225 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Monte Carlo analysis of a loot table: rolls it many times across all cores
+ * and aggregates per-material frequency and stack-size statistics.
+ * No drops are built; each worker keeps its own counters and random stream.
+ */
+public class LootSimulator {
+    private LootSimulator() {}
+
+    /**
+     * Roll the table the given number of times for one context.
+     * Blocks until done: call from an async task, never the main thread.
+     */
+    public static Report simulate(LootTable table, LootContext context, long rolls) {
+        // Assign every entry a material slot once; workers index plain arrays by slot
+        Map<LootEntry, Integer> slotOf = new IdentityHashMap<>();
+        List<String> materials = new ArrayList<>();
+        Map<String, Integer> materialSlots = new HashMap<>();
+        int maxAmount = 1;
+        int maxStacksPerRoll = 0;
+        for (LootPool pool : table.getPools()) {
+            maxStacksPerRoll += (int) (pool.getRolls() + pool.getRollBonus());
+            for (LootEntry entry : pool.getEntries()) {
+                Integer slot = materialSlots.get(entry.getMaterial());
+                if (slot == null) {
+                    slot = materials.size();
+                    materials.add(entry.getMaterial());
+                    materialSlots.put(entry.getMaterial(), slot);
+                }
+                slotOf.put(entry, slot);
+                maxAmount = Math.max(maxAmount, entry.getMaxAmount());
+            }
+        }
+
+        ForkJoinPool pool = LootEngine.batchPool();
+        int chunks = (int) Math.max(1, Math.min(rolls, pool.getParallelism() * 8L));
+        SplittableRandom root = new SplittableRandom();
+        List<ForkJoinTask<Counters>> tasks = new ArrayList<>(chunks);
+        long start = System.nanoTime();
+        for (int c = 0; c < chunks; c++) {
+            long count = rolls / chunks + (c < rolls % chunks ? 1 : 0);
+            SplittableRandom random = root.split();
+            int amountBuckets = maxAmount + 1;
+            int stackBuckets = maxStacksPerRoll + 1;
+            tasks.add(pool.submit(() -> {
+                Counters counters = new Counters(materials.size(), amountBuckets, stackBuckets);
+                counters.run(table, context, random, count, slotOf);
+                return counters;
+            }));
+        }
+
+        Counters total = new Counters(materials.size(), maxAmount + 1, maxStacksPerRoll + 1);
+        for (ForkJoinTask<Counters> task : tasks) {
+            total.merge(task.join());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<MaterialStats> stats = new ArrayList<>();
+        for (int slot = 0; slot < materials.size(); slot++) {
+            if (total.stacks[slot] == 0) {
+                continue;
+            }
+            stats.add(new MaterialStats(materials.get(slot),
+                (double) total.rollsWith[slot] / rolls,
+                (double) total.amount[slot] / total.stacks[slot],
+                percentile(total.amountHistogram[slot], 0.99),
+                (double) total.stacks[slot] / rolls));
+        }
+        stats.sort(Comparator.comparingDouble(MaterialStats::getFrequency).reversed());
+
+        long totalStacks = 0;
+        for (long count : total.stacks) {
+            totalStacks += count;
+        }
+        return new Report(table.getName(), rolls, elapsedNanos, (double) total.emptyRolls / rolls,
+            (double) totalStacks / rolls, percentile(total.stacksPerRollHistogram, 0.99), stats);
+    }
+
+    /**
+     * Smallest bucket index whose cumulative count reaches the given fraction.
+     */
+    private static int percentile(long[] histogram, double fraction) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long threshold = (long) Math.ceil(total * fraction);
+        long cumulative = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= threshold && total > 0) {
+                return i;
+            }
+        }
+        return histogram.length - 1;
+    }
+
+    /**
+     * Per-worker tallies, indexed by material slot.
+     */
+    private static final class Counters {
+        private final long[] stacks;
+        private final long[] amount;
+        private final long[] rollsWith;
+        private final long[][] amountHistogram;
+        private final long[] stacksPerRollHistogram;
+        private final long[] lastSeenRoll;
+        private long emptyRolls;
+
+        private Counters(int materials, int amountBuckets, int stackBuckets) {
+            this.stacks = new long[materials];
+            this.amount = new long[materials];
+            this.rollsWith = new long[materials];
+            this.amountHistogram = new long[materials][amountBuckets];
+            this.stacksPerRollHistogram = new long[stackBuckets];
+            this.lastSeenRoll = new long[materials];
+            Arrays.fill(lastSeenRoll, -1);
+        }
+
+        private void run(LootTable table, LootContext context, SplittableRandom random, long count,
+                         Map<LootEntry, Integer> slotOf) {
+            long[] roll = new long[1];
+            int[] stacksThisRoll = new int[1];
+            LootEngine.EntrySink sink = (entry, rolledAmount) -> {
+                int slot = slotOf.get(entry);
+                stacks[slot]++;
+                amount[slot] += rolledAmount;
+                amountHistogram[slot][Math.min(rolledAmount, amountHistogram[slot].length - 1)]++;
+                if (lastSeenRoll[slot] != roll[0]) {
+                    lastSeenRoll[slot] = roll[0];
+                    rollsWith[slot]++;
+                }
+                stacksThisRoll[0]++;
+            };
+            for (long i = 0; i < count; i++) {
+                roll[0] = i;
+                stacksThisRoll[0] = 0;
+                LootEngine.rollEntries(table, context, random, sink);
+                if (stacksThisRoll[0] == 0) {
+                    emptyRolls++;
+                }
+                stacksPerRollHistogram[Math.min(stacksThisRoll[0], stacksPerRollHistogram.length - 1)]++;
+            }
+        }
+
+        private void merge(Counters other) {
+            for (int slot = 0; slot < stacks.length; slot++) {
+                stacks[slot] += other.stacks[slot];
+                amount[slot] += other.amount[slot];
+                rollsWith[slot] += other.rollsWith[slot];
+                for (int a = 0; a < amountHistogram[slot].length; a++) {
+                    amountHistogram[slot][a] += other.amountHistogram[slot][a];
+                }
+            }
+            for (int s = 0; s < stacksPerRollHistogram.length; s++) {
+                stacksPerRollHistogram[s] += other.stacksPerRollHistogram[s];
+            }
+            emptyRolls += other.emptyRolls;
+        }
+    }
+
+    /**
+     * Statistics for one material across all simulated rolls.
+     */
+    public static final class MaterialStats {
+        private final String material;
+        private final double frequency;
+        private final double meanStack;
+        private final int p99Stack;
+        private final double stacksPerRoll;
+
+        private MaterialStats(String material, double frequency, double meanStack, int p99Stack, double stacksPerRoll) {
+            this.material = material;
+            this.frequency = frequency;
+            this.meanStack = meanStack;
+            this.p99Stack = p99Stack;
+            this.stacksPerRoll = stacksPerRoll;
+        }
+
+        public String getMaterial() { return material; }
+        /** Fraction of rolls containing at least one stack of this material. */
+        public double getFrequency() { return frequency; }
+        public double getMeanStack() { return meanStack; }
+        public int getP99Stack() { return p99Stack; }
+        public double getStacksPerRoll() { return stacksPerRoll; }
+    }
+
+    /**
+     * Aggregated result of a simulation run.
+     */
+    public static final class Report {
+        private final String tableName;
+        private final long rolls;
+        private final long elapsedNanos;
+        private final double emptyRate;
+        private final double meanStacksPerRoll;
+        private final int p99StacksPerRoll;
+        private final List<MaterialStats> materials;
+
+        private Report(String tableName, long rolls, long elapsedNanos, double emptyRate,
+                       double meanStacksPerRoll, int p99StacksPerRoll, List<MaterialStats> materials) {
+            this.tableName = tableName;
+            this.rolls = rolls;
+            this.elapsedNanos = elapsedNanos;
+            this.emptyRate = emptyRate;
+            this.meanStacksPerRoll = meanStacksPerRoll;
+            this.p99StacksPerRoll = p99StacksPerRoll;
+            this.materials = Collections.unmodifiableList(materials);
+        }
+
+        public String getTableName() { return tableName; }
+        public long getRolls() { return rolls; }
+        public long getElapsedMs() { return elapsedNanos / 1_000_000L; }
+        public double getRollsPerSecond() { return elapsedNanos > 0 ? rolls * 1e9 / elapsedNanos : 0.0; }
+        public double getEmptyRate() { return emptyRate; }
+        public double getMeanStacksPerRoll() { return meanStacksPerRoll; }
+        public int getP99StacksPerRoll() { return p99StacksPerRoll; }
+        public List<MaterialStats> getMaterials() { return materials; }
+    }
+}
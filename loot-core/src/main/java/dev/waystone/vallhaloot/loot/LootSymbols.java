@@ -0,0 +1,56 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns biome, world, skill and permission names to small ints, case-insensitively.
+ * Conditions resolve their names once at table load and contexts once at snapshot,
+ * so a condition test is an int comparison. Ids are process-wide and never reused.
+ */
+public final class LootSymbols {
+    private static final SymbolTable BIOMES = new SymbolTable();
+    private static final SymbolTable WORLDS = new SymbolTable();
+    private static final SymbolTable SKILLS = new SymbolTable();
+    private static final SymbolTable PERMISSIONS = new SymbolTable();
+
+    private LootSymbols() {}
+
+    public static int biome(String name) { return BIOMES.intern(name); }
+    public static int world(String name) { return WORLDS.intern(name); }
+    /** Skill ids double as slots in a context's skill level array. */
+    public static int skill(String name) { return SKILLS.intern(name); }
+    public static int skillCount() { return SKILLS.size(); }
+    /** Permission ids are bit positions in a context's permission set. */
+    public static int permission(String name) { return PERMISSIONS.intern(name); }
+
+    private static final class SymbolTable {
+        // Holds the name as given and its lowercase form, both mapped to the same id
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private int next;
+
+        private int intern(String name) {
+            if (name == null) {
+                return -1;
+            }
+            Integer id = ids.get(name);
+            return id != null ? id : internSlow(name);
+        }
+
+        private synchronized int internSlow(String name) {
+            String key = name.toLowerCase(Locale.ROOT);
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = next++;
+                ids.put(key, id);
+            }
+            ids.put(name, id);
+            return id;
+        }
+
+        private synchronized int size() {
+            return next;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.waystone.vallhaloot.loot;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Complete loot table with multiple pools.
@@ -11,14 +12,18 @@ public class LootTable {
     private final boolean firstOpenOnly;
     private final long respawnCooldownMs;
     private final double respawnVariance; // percentage variance
+    private final long revision; // content hash of the source file, stable across restarts
+    private final ContextFacets facets;
 
     public LootTable(String name, List<LootPool> pools, boolean firstOpenOnly,
-                    long respawnCooldownMs, double respawnVariance) {
+                    long respawnCooldownMs, double respawnVariance, long revision) {
         this.name = name;
         this.pools = new ArrayList<>(pools);
         this.firstOpenOnly = firstOpenOnly;
         this.respawnCooldownMs = respawnCooldownMs;
         this.respawnVariance = respawnVariance;
+        this.revision = revision;
+        this.facets = ContextFacets.of(this.pools);
     }
 
     public String getName() { return name; }
@@ -26,11 +31,26 @@ public class LootTable {
     public boolean isFirstOpenOnly() { return firstOpenOnly; }
     public long getRespawnCooldownMs() { return respawnCooldownMs; }
     public double getRespawnVariance() { return respawnVariance; }
+    public long getRevision() { return revision; }
+    /** Player data this table's conditions read; the rest is never fetched for it. */
+    public ContextFacets getFacets() { return facets; }
+
+    /**
+     * True if rolls don't depend on the context, so they can be made ahead of time.
+     */
+    public boolean isContextFree() {
+        for (LootPool pool : pools) {
+            if (!pool.isContextFree()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /**
      * Calculate actual respawn cooldown with variance.
      */
-    public long getActualRespawnCooldown(Random random) {
+    public long getActualRespawnCooldown(RandomGenerator random) {
         if (respawnVariance <= 0) {
             return respawnCooldownMs;
         }
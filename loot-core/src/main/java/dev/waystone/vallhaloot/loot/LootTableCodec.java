@@ -0,0 +1,224 @@
+package dev.waystone.vallhaloot.loot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary form of compiled loot tables, for caching them between restarts.
+ *
+ * Every string is written once into a string table and referenced by index. Decoded
+ * entries and pools go through {@link LootFlyweights}, so equal ones are shared.
+ * Conditions are stored by name and interned again on decode (interned ids are only
+ * valid for one run). Alias samplers are rebuilt by the pool constructors; that is
+ * linear in the entry count and cheap next to parsing YAML.
+ */
+public final class LootTableCodec {
+    private static final int NULL_STRING = -1;
+
+    // Condition tags; append only, the cache format version covers changes
+    private static final byte ALWAYS_TRUE = 0;
+    private static final byte BIOME = 1;
+    private static final byte WORLD = 2;
+    private static final byte NIGHT = 3;
+    private static final byte DAY = 4;
+    private static final byte SKILL = 5;
+    private static final byte PERMISSION = 6;
+    private static final byte LEVEL = 7;
+
+    private LootTableCodec() {}
+
+    /**
+     * Writes tables (and any extra fields the caller adds) into one buffer.
+     */
+    public static final class Encoder {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(16 * 1024);
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        public void writeInt(int value) throws IOException { out.writeInt(value); }
+        public void writeLong(long value) throws IOException { out.writeLong(value); }
+        public void writeDouble(double value) throws IOException { out.writeDouble(value); }
+        public void writeBoolean(boolean value) throws IOException { out.writeBoolean(value); }
+
+        public void writeString(String value) throws IOException {
+            out.writeInt(value == null ? NULL_STRING : strings.computeIfAbsent(value, s -> strings.size()));
+        }
+
+        /**
+         * Write a table.
+         *
+         * @throws IllegalArgumentException if an entry uses a condition type this codec doesn't know
+         */
+        public void writeTable(LootTable table) throws IOException {
+            writeString(table.getName());
+            writeLong(table.getRevision());
+            writeBoolean(table.isFirstOpenOnly());
+            writeLong(table.getRespawnCooldownMs());
+            writeDouble(table.getRespawnVariance());
+            writeInt(table.getPools().size());
+            for (LootPool pool : table.getPools()) {
+                writeString(pool.getName());
+                writeInt(pool.getRolls());
+                writeDouble(pool.getRollBonus());
+                writeInt(pool.getEntries().size());
+                for (LootEntry entry : pool.getEntries()) {
+                    writeEntry(entry);
+                }
+            }
+        }
+
+        private void writeEntry(LootEntry entry) throws IOException {
+            writeString(entry.getMaterial());
+            writeInt(entry.getMinAmount());
+            writeInt(entry.getMaxAmount());
+            writeDouble(entry.getWeight());
+            writeString(entry.getDisplayName());
+            writeInt(entry.getLore().size());
+            for (String line : entry.getLore()) {
+                writeString(line);
+            }
+            writeBoolean(entry.isOverwrite());
+            writeInt(entry.getConditions().size());
+            for (LootCondition condition : entry.getConditions()) {
+                writeCondition(condition);
+            }
+        }
+
+        private void writeCondition(LootCondition condition) throws IOException {
+            if (condition instanceof LootCondition.AlwaysTrue) {
+                out.writeByte(ALWAYS_TRUE);
+            } else if (condition instanceof LootCondition.BiomeCondition biome) {
+                out.writeByte(BIOME);
+                writeString(biome.biome());
+            } else if (condition instanceof LootCondition.WorldCondition world) {
+                out.writeByte(WORLD);
+                writeString(world.world());
+            } else if (condition instanceof LootCondition.TimeCondition time) {
+                out.writeByte(time.night ? NIGHT : DAY);
+            } else if (condition instanceof LootCondition.SkillCondition skill) {
+                out.writeByte(SKILL);
+                writeString(skill.skillName);
+                writeInt(skill.minLevel);
+            } else if (condition instanceof LootCondition.PermissionCondition permission) {
+                out.writeByte(PERMISSION);
+                writeString(permission.permission);
+            } else if (condition instanceof LootCondition.LevelCondition level) {
+                out.writeByte(LEVEL);
+                writeInt(level.minLevel);
+            } else {
+                throw new IllegalArgumentException("Can't encode condition " + condition.getClass().getName());
+            }
+        }
+
+        /**
+         * The encoded bytes: string table first, then everything written so far.
+         */
+        public byte[] toByteArray() throws IOException {
+            ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 4);
+            DataOutputStream header = new DataOutputStream(result);
+            header.writeInt(strings.size());
+            for (String value : strings.keySet()) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                header.writeInt(utf8.length);
+                header.write(utf8);
+            }
+            out.flush();
+            body.writeTo(result);
+            return result.toByteArray();
+        }
+    }
+
+    /**
+     * Reads what an {@link Encoder} wrote, in the same order.
+     */
+    public static final class Decoder {
+        private final ByteBuffer in;
+        private final LootFlyweights flyweights;
+        private final String[] strings;
+
+        /**
+         * @param in positioned at the start of the encoded bytes; read from its position onward
+         */
+        public Decoder(ByteBuffer in, LootFlyweights flyweights) {
+            this.in = in;
+            this.flyweights = flyweights;
+            this.strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] utf8 = new byte[in.getInt()];
+                in.get(utf8);
+                strings[i] = flyweights.string(new String(utf8, StandardCharsets.UTF_8));
+            }
+        }
+
+        public int readInt() { return in.getInt(); }
+        public long readLong() { return in.getLong(); }
+        public double readDouble() { return in.getDouble(); }
+        public boolean readBoolean() { return in.get() != 0; }
+
+        public String readString() {
+            int index = in.getInt();
+            return index == NULL_STRING ? null : strings[index];
+        }
+
+        public LootTable readTable() {
+            String name = readString();
+            long revision = readLong();
+            boolean firstOpenOnly = readBoolean();
+            long respawnCooldown = readLong();
+            double respawnVariance = readDouble();
+            int poolCount = readInt();
+            List<LootPool> pools = new ArrayList<>(poolCount);
+            for (int p = 0; p < poolCount; p++) {
+                String poolName = readString();
+                int rolls = readInt();
+                double rollBonus = readDouble();
+                int entryCount = readInt();
+                List<LootEntry> entries = new ArrayList<>(entryCount);
+                for (int e = 0; e < entryCount; e++) {
+                    entries.add(readEntry());
+                }
+                pools.add(flyweights.pool(poolName, entries, rolls, rollBonus));
+            }
+            return new LootTable(name, pools, firstOpenOnly, respawnCooldown, respawnVariance, revision);
+        }
+
+        private LootEntry readEntry() {
+            String material = readString();
+            int minAmount = readInt();
+            int maxAmount = readInt();
+            double weight = readDouble();
+            String displayName = readString();
+            int loreCount = readInt();
+            List<String> lore = new ArrayList<>(loreCount);
+            for (int i = 0; i < loreCount; i++) {
+                lore.add(readString());
+            }
+            boolean overwrite = readBoolean();
+            int conditionCount = readInt();
+            List<LootCondition> conditions = new ArrayList<>(conditionCount);
+            for (int i = 0; i < conditionCount; i++) {
+                conditions.add(readCondition());
+            }
+            return flyweights.entry(material, minAmount, maxAmount, weight, displayName, lore, conditions, overwrite);
+        }
+
+        private LootCondition readCondition() {
+            byte tag = in.get();
+            return switch (tag) {
+                case ALWAYS_TRUE -> LootCondition.Conditions.alwaysTrue();
+                case BIOME -> LootCondition.Conditions.biome(readString());
+                case WORLD -> LootCondition.Conditions.world(readString());
+                case NIGHT -> LootCondition.Conditions.nightOnly();
+                case DAY -> LootCondition.Conditions.dayOnly();
+                case SKILL -> LootCondition.Conditions.skillThreshold(readString(), readInt());
+                case PERMISSION -> LootCondition.Conditions.permission(readString());
+                case LEVEL -> LootCondition.Conditions.minLevel(readInt());
+                default -> throw new IllegalStateException("Unknown condition tag " + tag);
+            };
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LootContextTest {
+    @Test
+    void nullMetadataValuesAreDropped() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("skill_mining", 12);
+        metadata.put("perm_valloot.vip", true);
+        metadata.put("note", null);
+
+        LootContext context = new LootContext(UUID.randomUUID(), "Steve", 1, 64, -3, "world", UUID.randomUUID(),
+            1L, "CHEST", "PLAINS", 18000L, 0, true, 5, metadata);
+
+        assertEquals(Map.of("skill_mining", 12, "perm_valloot.vip", true), context.getMetadata());
+        assertNull(context.getMetadata("note"));
+        assertTrue(LootCondition.Conditions.skillThreshold("mining", 10).test(context));
+        assertTrue(LootCondition.Conditions.permission("valloot.vip").test(context));
+
+        LootContext built = LootContext.builder(UUID.randomUUID(), "Alex").metadata(metadata).build();
+        assertEquals(2, built.getMetadata().size());
+    }
+}
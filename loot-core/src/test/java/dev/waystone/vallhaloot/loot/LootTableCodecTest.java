@@ -0,0 +1,84 @@
+package dev.waystone.vallhaloot.loot;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LootTableCodecTest {
+    // One of every condition the codec has a tag for
+    private static final List<LootCondition> ALL_CONDITIONS = List.of(
+        LootCondition.Conditions.alwaysTrue(),
+        LootCondition.Conditions.biome("DESERT"),
+        LootCondition.Conditions.world("world_nether"),
+        LootCondition.Conditions.nightOnly(),
+        LootCondition.Conditions.dayOnly(),
+        LootCondition.Conditions.skillThreshold("mining", 25),
+        LootCondition.Conditions.permission("valloot.vip"),
+        LootCondition.Conditions.minLevel(10));
+
+    @Test
+    void tableSurvivesRoundTrip() throws IOException {
+        LootEntry plain = new LootEntry("STONE", 1, 16, 5.0, null, List.of(), List.of(), false);
+        LootEntry named = new LootEntry("DIAMOND", 1, 2, 0.5, "§bShiny", List.of("line one", "§7line two"),
+            ALL_CONDITIONS, true);
+        LootTable table = new LootTable("rare", List.of(
+            new LootPool("main", List.of(plain, named), 3, 0.25),
+            new LootPool("bonus", List.of(plain), 1, 0.0)), true, 3_600_000L, 0.2, 0xCAFEL);
+
+        LootTableCodec.Encoder encoder = new LootTableCodec.Encoder();
+        encoder.writeTable(table);
+        encoder.writeString("trailer");
+        encoder.writeLong(42L);
+        LootTableCodec.Decoder decoder = new LootTableCodec.Decoder(ByteBuffer.wrap(encoder.toByteArray()), new LootFlyweights());
+        LootTable decoded = decoder.readTable();
+
+        assertEquals("rare", decoded.getName());
+        assertEquals(0xCAFEL, decoded.getRevision());
+        assertTrue(decoded.isFirstOpenOnly());
+        assertEquals(3_600_000L, decoded.getRespawnCooldownMs());
+        assertEquals(0.2, decoded.getRespawnVariance());
+        assertEquals(2, decoded.getPools().size());
+        for (int p = 0; p < table.getPools().size(); p++) {
+            LootPool expected = table.getPools().get(p);
+            LootPool actual = decoded.getPools().get(p);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getRolls(), actual.getRolls());
+            assertEquals(expected.getRollBonus(), actual.getRollBonus());
+            assertEquals(expected.getEntries().size(), actual.getEntries().size());
+            for (int e = 0; e < expected.getEntries().size(); e++) {
+                assertEntryEquals(expected.getEntries().get(e), actual.getEntries().get(e));
+            }
+        }
+        // Equal entries decode to one shared instance
+        assertSame(decoded.getPools().get(0).getEntries().get(0), decoded.getPools().get(1).getEntries().get(0));
+
+        // Fields the caller writes after a table still line up
+        assertEquals("trailer", decoder.readString());
+        assertEquals(42L, decoder.readLong());
+    }
+
+    @Test
+    void unknownConditionIsRejected() {
+        LootCondition custom = context -> true;
+        LootEntry entry = new LootEntry("STONE", 1, 1, 1.0, null, List.of(), List.of(custom), false);
+        LootTable table = new LootTable("custom", List.of(new LootPool("main", List.of(entry), 1, 0.0)),
+            false, 0L, 0.0, 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> new LootTableCodec.Encoder().writeTable(table));
+    }
+
+    private static void assertEntryEquals(LootEntry expected, LootEntry actual) {
+        assertEquals(expected.getMaterial(), actual.getMaterial());
+        assertEquals(expected.getMinAmount(), actual.getMinAmount());
+        assertEquals(expected.getMaxAmount(), actual.getMaxAmount());
+        assertEquals(expected.getWeight(), actual.getWeight());
+        assertEquals(expected.getDisplayName(), actual.getDisplayName());
+        assertEquals(expected.getLore(), actual.getLore());
+        assertEquals(expected.getConditions(), actual.getConditions());
+        assertEquals(expected.isOverwrite(), actual.isOverwrite());
+    }
+}
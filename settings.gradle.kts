@@ -1 +1,4 @@
 rootProject.name = "ValhallaLoot"
+
+// Server-independent loot engine, bundled into the plugin jar
+include("loot-core")
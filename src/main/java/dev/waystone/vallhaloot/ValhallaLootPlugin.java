@@ -1,5 +1,7 @@
 package dev.waystone.vallhaloot;
 
+import dev.waystone.vallhaloot.bukkit.LootItemFactory;
+import dev.waystone.vallhaloot.bukkit.LootModifierPipeline;
 import dev.waystone.vallhaloot.config.ConfigManager;
 import dev.waystone.vallhaloot.integration.ValhallaHook;
 import dev.waystone.vallhaloot.listeners.ContainerOpenListener;
@@ -10,6 +12,7 @@ import dev.waystone.vallhaloot.util.SchedulerHelper;
 import dev.waystone.vallhaloot.util.DebugLevel;
 import dev.waystone.vallhaloot.storage.StorageManager;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.NamespacedKey;
 
@@ -35,6 +38,8 @@ public class ValhallaLootPlugin extends JavaPlugin {
     private ValhallaHook valhallaHook;
     private StorageManager storageManager;
     private SchedulerHelper schedulerHelper;
+    private LootItemFactory lootItemFactory;
+    private LootModifierPipeline modifierPipeline;
     private ChunkLoadListener chunkLoadListener;
     private DebugLevel debugLevel = DebugLevel.NORMAL;
     private NamespacedKey playerPlacedKey;
@@ -51,6 +56,7 @@ public class ValhallaLootPlugin extends JavaPlugin {
         
         // Initialize scheduler first
         this.schedulerHelper = new SchedulerHelper(this);
+        this.lootItemFactory = new LootItemFactory(getLogger());
         
         // Load configuration
         saveDefaultConfig();
@@ -89,6 +95,14 @@ public class ValhallaLootPlugin extends JavaPlugin {
         
         // Initialize ValhallaMMO integration (gracefully degrades if not present)
         this.valhallaHook = new ValhallaHook(this);
+
+        // Loot modifiers; other plugins add theirs through the ServicesManager
+        this.modifierPipeline = new LootModifierPipeline(getLogger());
+        Bukkit.getPluginManager().registerEvents(modifierPipeline, this);
+        if (valhallaHook.isAvailable()) {
+            modifierPipeline.register(this, "valhalla", 100, valhallaHook::getModifier);
+        }
+        Bukkit.getServicesManager().register(LootModifierPipeline.class, modifierPipeline, this, ServicePriority.Normal);
         // PersistentData keys
         this.playerPlacedKey = new NamespacedKey(this, "player-placed");
         this.convertedKey = new NamespacedKey(this, "converted");
@@ -120,9 +134,14 @@ public class ValhallaLootPlugin extends JavaPlugin {
     public void onDisable() {
         // BUGFIX #3: Unregister all listeners to prevent double-event handling on reload
         org.bukkit.event.HandlerList.unregisterAll(this);
+        Bukkit.getServicesManager().unregisterAll(this);
+        if (configManager != null) {
+            configManager.shutdown();
+        }
         if (storageManager != null) {
             storageManager.shutdown();
         }
+        dev.waystone.vallhaloot.loot.LootEngine.shutdownBatchPool();
         getLogger().info("ValhallaLoot disabled");
     }
 
@@ -146,6 +165,20 @@ public class ValhallaLootPlugin extends JavaPlugin {
         return schedulerHelper;
     }
 
+    /**
+     * Builds ItemStacks from rolled drops when loot is applied.
+     */
+    public LootItemFactory getLootItemFactory() {
+        return lootItemFactory;
+    }
+
+    /**
+     * Modifiers applied to every container roll.
+     */
+    public LootModifierPipeline getModifierPipeline() {
+        return modifierPipeline;
+    }
+
     public DebugLevel getDebugLevel() {
         return debugLevel;
     }
@@ -0,0 +1,23 @@
+package dev.waystone.vallhaloot.bukkit;
+
+import dev.waystone.vallhaloot.loot.LootModifier;
+import dev.waystone.vallhaloot.loot.LootRollResult;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * A loot modifier that also works on the final ItemStacks, for items that can't be
+ * described as plain drops (e.g. serialized items from other plugins).
+ * {@link #modify} still runs with the roll; {@link #modifyItems} runs on the main
+ * thread once the drops have been turned into items.
+ */
+public interface ItemLootModifier extends LootModifier {
+    /**
+     * Add, remove or change items before they are placed in the container.
+     *
+     * @param result The roll the items were built from
+     * @param items The materialized items, in slot order; mutable
+     */
+    void modifyItems(LootRollResult result, List<ItemStack> items);
+}
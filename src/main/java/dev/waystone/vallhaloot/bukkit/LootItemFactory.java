@@ -0,0 +1,86 @@
+package dev.waystone.vallhaloot.bukkit;
+
+import dev.waystone.vallhaloot.loot.LootDrop;
+import dev.waystone.vallhaloot.loot.LootEntry;
+import dev.waystone.vallhaloot.loot.LootRollResult;
+import dev.waystone.vallhaloot.util.ItemStackBuilder;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Turns the plain drops of a roll into ItemStacks.
+ * MUST be called on the main thread, when loot is applied; rolls themselves never touch Bukkit.
+ * Each entry's name and lore are built into a prototype once, so a drop costs one clone.
+ */
+public class LootItemFactory {
+    private final Logger logger;
+    // Keyed by entry identity; cleared when tables are reloaded
+    private final Map<LootEntry, ItemStack> prototypes = new ConcurrentHashMap<>();
+
+    public LootItemFactory(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Build the items for every drop of a roll, in order. Drops of unknown materials are skipped.
+     */
+    public List<ItemStack> materialize(LootRollResult result) {
+        List<ItemStack> items = new ArrayList<>(result.getDrops().size());
+        for (LootDrop drop : result.getDrops()) {
+            ItemStack item = toItem(drop);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Build the item for a single drop, or null if its material is unknown.
+     */
+    public ItemStack toItem(LootDrop drop) {
+        ItemStack prototype = drop.getEntry() != null
+            ? prototypes.computeIfAbsent(drop.getEntry(), entry -> buildPrototype(drop))
+            : buildPrototype(drop);
+        if (prototype == null) {
+            return null;
+        }
+        ItemStack item = prototype.clone();
+        item.setAmount(drop.getAmount());
+        return item;
+    }
+
+    /**
+     * Drop one entry's prototype, e.g. when the only table using it was reloaded.
+     */
+    public void forget(LootEntry entry) {
+        prototypes.remove(entry);
+    }
+
+    /**
+     * Forget all prototypes. Called when tables are reloaded.
+     */
+    public void clear() {
+        prototypes.clear();
+    }
+
+    private ItemStack buildPrototype(LootDrop drop) {
+        Material material = Material.matchMaterial(drop.getMaterial());
+        if (material == null) {
+            logger.warning("Unknown material in loot drop: " + drop.getMaterial());
+            return null;
+        }
+        ItemStackBuilder builder = new ItemStackBuilder(material, 1);
+        if (drop.getDisplayName() != null && !drop.getDisplayName().isEmpty()) {
+            builder.withName(drop.getDisplayName());
+        }
+        if (!drop.getLore().isEmpty()) {
+            builder.withLore(drop.getLore());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,17 @@
+package dev.waystone.vallhaloot.bukkit;
+
+import dev.waystone.vallhaloot.loot.LootContext;
+import dev.waystone.vallhaloot.loot.LootModifier;
+import org.bukkit.entity.Player;
+
+/**
+ * Creates the modifier for one roll. Called on the main thread before the roll,
+ * so it can read anything the modifier needs from the server and capture it.
+ */
+@FunctionalInterface
+public interface LootModifierFactory {
+    /**
+     * @return the modifier for this roll, or null to skip it
+     */
+    LootModifier create(Player player, LootContext context);
+}
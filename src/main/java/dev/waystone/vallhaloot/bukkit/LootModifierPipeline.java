@@ -0,0 +1,227 @@
+package dev.waystone.vallhaloot.bukkit;
+
+import dev.waystone.vallhaloot.loot.LootContext;
+import dev.waystone.vallhaloot.loot.LootModifier;
+import dev.waystone.vallhaloot.loot.LootRollResult;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ordered set of loot modifiers, shared with other plugins through the ServicesManager:
+ * {@code Bukkit.getServicesManager().load(LootModifierPipeline.class).register(...)}.
+ *
+ * Per roll, {@link #prepare} creates each modifier on the main thread, then the returned
+ * {@link Run} executes them in stages:
+ * - {@link Run#rollStage}: {@link LootModifier.Stage#ROLL} modifiers, with the roll (async)
+ * - {@link Run#applyStage}: {@link LootModifier.Stage#APPLY} modifiers, on the main thread
+ * - {@link Run#modifyItems}: {@link ItemLootModifier}s, on the main thread after materializing
+ *
+ * A modifier that throws is logged and skipped; the others still run. Registrations
+ * are dropped when their plugin disables.
+ */
+public class LootModifierPipeline implements Listener {
+    private final Logger logger;
+    // Replaced on every change, sorted by order; rolls read it without locking
+    private volatile List<Registration> registrations = List.of();
+
+    public LootModifierPipeline(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Register a modifier factory. Lower orders run first; names must be unique.
+     */
+    public synchronized void register(Plugin owner, String name, int order, LootModifierFactory factory) {
+        List<Registration> updated = new ArrayList<>(registrations);
+        updated.removeIf(registration -> registration.name.equals(name));
+        updated.add(new Registration(owner, name, order, factory));
+        updated.sort(Comparator.comparingInt(registration -> registration.order));
+        registrations = List.copyOf(updated);
+    }
+
+    /**
+     * Register a modifier that is the same for every roll.
+     */
+    public void register(Plugin owner, String name, int order, LootModifier modifier) {
+        register(owner, name, order, (player, context) -> modifier);
+    }
+
+    public synchronized void unregister(String name) {
+        List<Registration> updated = new ArrayList<>(registrations);
+        if (updated.removeIf(registration -> registration.name.equals(name))) {
+            registrations = List.copyOf(updated);
+        }
+    }
+
+    public synchronized void unregisterAll(Plugin owner) {
+        List<Registration> updated = new ArrayList<>(registrations);
+        if (updated.removeIf(registration -> registration.owner == owner)) {
+            registrations = List.copyOf(updated);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        unregisterAll(event.getPlugin());
+    }
+
+    /**
+     * Create this roll's modifiers. MUST be called on the main thread.
+     *
+     * @param player the player the loot is for, or null (no modifiers run)
+     */
+    public Run prepare(Player player, LootContext context) {
+        List<Registration> current = registrations;
+        if (player == null || current.isEmpty()) {
+            return Run.EMPTY;
+        }
+
+        List<Registration> used = new ArrayList<>(current.size());
+        List<LootModifier> modifiers = new ArrayList<>(current.size());
+        for (Registration registration : current) {
+            long start = System.nanoTime();
+            try {
+                LootModifier modifier = registration.factory.create(player, context);
+                if (modifier != null) {
+                    used.add(registration);
+                    modifiers.add(modifier);
+                }
+            } catch (RuntimeException e) {
+                registration.failed(logger, "create", e);
+            } finally {
+                registration.record(System.nanoTime() - start);
+            }
+        }
+        return modifiers.isEmpty() ? Run.EMPTY
+            : new Run(logger, used.toArray(new Registration[0]), modifiers.toArray(new LootModifier[0]));
+    }
+
+    /**
+     * One line per registered modifier: order, name, owner, calls, average time and failures.
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Registration registration : registrations) {
+            long calls = registration.calls.sum();
+            double averageMicros = calls == 0 ? 0.0 : registration.nanos.sum() / 1000.0 / calls;
+            lines.add(String.format(Locale.ROOT, "%d %s (%s): %d calls, %.1fµs avg, %d failures",
+                registration.order, registration.name, registration.owner.getName(),
+                calls, averageMicros, registration.failures.sum()));
+        }
+        return lines;
+    }
+
+    /**
+     * The modifiers created for one roll.
+     */
+    public static final class Run {
+        static final Run EMPTY = new Run(null, new Registration[0], new LootModifier[0]);
+
+        private final Logger logger;
+        private final Registration[] registrations;
+        private final LootModifier[] modifiers;
+
+        private Run(Logger logger, Registration[] registrations, LootModifier[] modifiers) {
+            this.logger = logger;
+            this.registrations = registrations;
+            this.modifiers = modifiers;
+        }
+
+        public boolean isEmpty() {
+            return modifiers.length == 0;
+        }
+
+        /**
+         * Run the ROLL stage. Safe on any thread.
+         */
+        public void rollStage(LootRollResult result) {
+            runStage(LootModifier.Stage.ROLL, result);
+        }
+
+        /**
+         * Run the APPLY stage. MUST be called on the main thread, before materializing.
+         */
+        public void applyStage(LootRollResult result) {
+            runStage(LootModifier.Stage.APPLY, result);
+        }
+
+        /**
+         * Let item-level modifiers change the materialized items. MUST be called on the main thread.
+         */
+        public void modifyItems(LootRollResult result, List<ItemStack> items) {
+            for (int i = 0; i < modifiers.length; i++) {
+                if (!(modifiers[i] instanceof ItemLootModifier itemModifier)) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    itemModifier.modifyItems(result, items);
+                } catch (RuntimeException e) {
+                    registrations[i].failed(logger, "modifyItems", e);
+                } finally {
+                    registrations[i].record(System.nanoTime() - start);
+                }
+            }
+        }
+
+        private void runStage(LootModifier.Stage stage, LootRollResult result) {
+            for (int i = 0; i < modifiers.length; i++) {
+                if (modifiers[i].stage() != stage) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    modifiers[i].modify(result);
+                } catch (RuntimeException e) {
+                    registrations[i].failed(logger, "modify", e);
+                } finally {
+                    registrations[i].record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    private static final class Registration {
+        final Plugin owner;
+        final String name;
+        final int order;
+        final LootModifierFactory factory;
+        final LongAdder calls = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        Registration(Plugin owner, String name, int order, LootModifierFactory factory) {
+            this.owner = owner;
+            this.name = name;
+            this.order = order;
+            this.factory = factory;
+        }
+
+        void record(long elapsedNanos) {
+            calls.increment();
+            nanos.add(elapsedNanos);
+        }
+
+        void failed(Logger logger, String phase, RuntimeException e) {
+            failures.increment();
+            // Full trace once, then a line every 100 failures; a broken modifier fails on every roll
+            long count = failures.sum();
+            if (count == 1) {
+                logger.log(Level.WARNING, "Loot modifier " + name + " (" + owner.getName() +
+                    ") failed in " + phase + ", skipping it for this roll", e);
+            } else if (count % 100 == 0) {
+                logger.warning("Loot modifier " + name + " has failed " + count + " times, last: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.waystone.vallhaloot.bukkit;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.generator.structure.GeneratedStructure;
+import org.bukkit.generator.structure.StructurePiece;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Finds the loot table for a container from the structures the server generated
+ * around it, instead of guessing from nearby blocks.
+ *
+ * Chunks keep a reference to every generated structure overlapping them, so this
+ * looks at a handful of bounding boxes instead of thousands of blocks. A block counts
+ * as inside a structure when it lies in one of its pieces (rooms, corridors, houses);
+ * the overall box of a village or fortress also covers the open ground between them.
+ * MUST be called on the main thread.
+ */
+public class StructureTableResolver {
+    // Vanilla structure key -> bundled table; variants share a table
+    private static final Map<String, String> VANILLA_TABLES = Map.ofEntries(
+        Map.entry("minecraft:ancient_city", "ancient_city"),
+        Map.entry("minecraft:bastion_remnant", "bastion_remnant"),
+        Map.entry("minecraft:buried_treasure", "buried_treasure"),
+        Map.entry("minecraft:desert_pyramid", "desert_pyramid"),
+        Map.entry("minecraft:end_city", "end_city"),
+        Map.entry("minecraft:fortress", "nether_fortress"),
+        Map.entry("minecraft:igloo", "igloo"),
+        Map.entry("minecraft:jungle_pyramid", "jungle_temple"),
+        Map.entry("minecraft:mansion", "mansion"),
+        Map.entry("minecraft:mineshaft", "mineshaft"),
+        Map.entry("minecraft:mineshaft_mesa", "mineshaft"),
+        Map.entry("minecraft:ocean_ruin_cold", "ocean_ruins"),
+        Map.entry("minecraft:ocean_ruin_warm", "ocean_ruins"),
+        Map.entry("minecraft:pillager_outpost", "pillager_outpost"),
+        Map.entry("minecraft:ruined_portal", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_desert", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_jungle", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_mountain", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_nether", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_ocean", "ruined_portal"),
+        Map.entry("minecraft:ruined_portal_swamp", "ruined_portal"),
+        Map.entry("minecraft:shipwreck", "shipwreck"),
+        Map.entry("minecraft:shipwreck_beached", "shipwreck"),
+        Map.entry("minecraft:stronghold", "stronghold"),
+        Map.entry("minecraft:trial_chambers", "trial_chambers"),
+        Map.entry("minecraft:village_desert", "village"),
+        Map.entry("minecraft:village_plains", "village"),
+        Map.entry("minecraft:village_savanna", "village"),
+        Map.entry("minecraft:village_snowy", "village"),
+        Map.entry("minecraft:village_taiga", "village"));
+
+    private final Predicate<String> tableExists;
+
+    /**
+     * @param tableExists whether a table name is loaded; structures without a vanilla
+     *                    mapping (e.g. from datapacks) use the table named after their key
+     */
+    public StructureTableResolver(Predicate<String> tableExists) {
+        this.tableExists = tableExists;
+    }
+
+    /**
+     * Whether the block's world has structure data to resolve against. Worlds from custom
+     * generators that don't generate structures have none, so callers fall back to scanning.
+     */
+    public boolean canResolve(Block block) {
+        return block.getWorld().canGenerateStructures();
+    }
+
+    /**
+     * The table for the structure the block is part of, or null if it isn't in one
+     * (or the structure has no table).
+     */
+    public String resolve(Block block) {
+        double x = block.getX() + 0.5;
+        double y = block.getY() + 0.5;
+        double z = block.getZ() + 0.5;
+        for (GeneratedStructure structure : block.getChunk().getStructures()) {
+            if (!structure.getBoundingBox().contains(x, y, z) || !inPiece(structure, x, y, z)) {
+                continue;
+            }
+            String table = tableFor(structure.getStructure().getKey());
+            if (table != null) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private static boolean inPiece(GeneratedStructure structure, double x, double y, double z) {
+        for (StructurePiece piece : structure.getPieces()) {
+            if (piece.getBoundingBox().contains(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String tableFor(NamespacedKey key) {
+        if (key == null) {
+            return null;
+        }
+        String table = VANILLA_TABLES.get(key.asString());
+        if (table != null) {
+            return table;
+        }
+        return tableExists.test(key.getKey()) ? key.getKey() : null;
+    }
+}
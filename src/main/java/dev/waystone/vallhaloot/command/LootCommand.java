@@ -1,15 +1,20 @@
 package dev.waystone.vallhaloot.command;
 
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.bukkit.LootModifierPipeline;
 import dev.waystone.vallhaloot.loot.*;
 import dev.waystone.vallhaloot.storage.StorageManager;
 import dev.waystone.vallhaloot.util.DebugLevel;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Locale;
+import java.util.UUID;
+
 /**
  * Command handler for /valloot commands.
  */
@@ -43,8 +48,10 @@ public class LootCommand implements CommandExecutor {
         return switch (subcommand) {
             case "reload" -> handleReload(sender);
             case "test" -> handleTest(sender, args);
+            case "simulate" -> handleSimulate(sender, args);
             case "status" -> convertCommand.onStatus(sender, copyRemainingArgs(args));
             case "bg-status" -> handleBackgroundStatus(sender);
+            case "modifiers" -> handleModifiers(sender);
             case "convert" -> convertCommand.onCommand(sender, command, label, copyRemainingArgs(args));
             case "restore" -> restoreCommand.onCommand(sender, command, label, copyRemainingArgs(args));
             case "reset" -> handleReset(sender, copyRemainingArgs(args));
@@ -55,7 +62,18 @@ public class LootCommand implements CommandExecutor {
     private boolean handleReload(CommandSender sender) {
         sender.sendMessage("§eReloading ValhallaLoot configuration...");
         plugin.reloadConfig();
-        plugin.getConfigManager().reloadTables();
+        // Tables load in the background; the old ones keep serving loot until then
+        plugin.getConfigManager().reloadTables().whenComplete((registry, error) ->
+            plugin.getSchedulerHelper().runSync(() -> {
+                if (error != null) {
+                    sender.sendMessage("§cFailed to reload loot tables: " + error.getMessage());
+                } else {
+                    sender.sendMessage("§aLoaded " + registry.size() + " loot tables §7(registry v" + registry.getVersion() + ")");
+                    if (!registry.getDiagnostics().isEmpty()) {
+                        sender.sendMessage("§e" + registry.getDiagnostics().size() + " table problems, see the console log");
+                    }
+                }
+            }));
         
         // Reload debug level from config
         String debugLevelStr = plugin.getConfig().getString("debug-level", "NORMAL");
@@ -99,6 +117,23 @@ public class LootCommand implements CommandExecutor {
         return true;
     }
 
+    private boolean handleModifiers(CommandSender sender) {
+        if (!sender.hasPermission("valloot.admin")) {
+            sender.sendMessage("§cYou don't have permission to use this command.");
+            return true;
+        }
+
+        java.util.List<String> lines = plugin.getModifierPipeline().describe();
+        sender.sendMessage("§e=== Loot Modifiers ===");
+        if (lines.isEmpty()) {
+            sender.sendMessage("§7(No modifiers registered)");
+        }
+        for (String line : lines) {
+            sender.sendMessage("  §f- " + line);
+        }
+        return true;
+    }
+
     private boolean handleReset(CommandSender sender, String[] args) {
         if (!sender.hasPermission("valloot.admin")) {
             sender.sendMessage("§cYou don't have permission to use this command.");
@@ -167,9 +202,10 @@ public class LootCommand implements CommandExecutor {
         LootContext context = new LootContext(
             player.getUniqueId(),
             player.getName(),
-            player.getLocation().toVector(),
+            player.getLocation().getBlockX(), player.getLocation().getBlockY(), player.getLocation().getBlockZ(),
             player.getWorld().getName(),
             player.getWorld().getUID(),
+            player.getWorld().getSeed(),
             "test",
             player.getLocation().getBlock().getBiome().toString(),
             player.getWorld().getTime(),
@@ -181,24 +217,30 @@ public class LootCommand implements CommandExecutor {
 
         // Roll loot
         LootRollResult result = LootEngine.roll(table, context);
+        LootModifierPipeline.Run modifiers = plugin.getModifierPipeline().prepare(player, context);
+        modifiers.rollStage(result);
+        modifiers.applyStage(result);
+        java.util.List<org.bukkit.inventory.ItemStack> items = plugin.getLootItemFactory().materialize(result);
+        modifiers.modifyItems(result, items);
 
         sender.sendMessage("§e=== Loot Roll Result ===");
         sender.sendMessage("§6Table: §f" + tableName);
         sender.sendMessage("§6Player: §f" + player.getName());
-        sender.sendMessage("§6Items rolled: §f" + result.getItems().size());
+        sender.sendMessage("§6Items rolled: §f" + items.size());
         sender.sendMessage("§6Generation time: §f" + result.getRollTimeMs() + "ms");
+        sender.sendMessage("§6Table revision: §f" + Long.toHexString(result.getTableRevision()));
 
-        if (result.getItems().isEmpty()) {
+        if (items.isEmpty()) {
             sender.sendMessage("§c(No items rolled)");
         } else {
             sender.sendMessage("§6Items:");
-            for (org.bukkit.inventory.ItemStack item : result.getItems()) {
+            for (org.bukkit.inventory.ItemStack item : items) {
                 sender.sendMessage("  §f- " + item.getType() + " x" + item.getAmount());
             }
         }
 
         if (giveItems && player != null) {
-            for (org.bukkit.inventory.ItemStack item : result.getItems()) {
+            for (org.bukkit.inventory.ItemStack item : items) {
                 player.getInventory().addItem(item);
             }
             sender.sendMessage("§aItems given to " + player.getName());
@@ -207,12 +249,112 @@ public class LootCommand implements CommandExecutor {
         return true;
     }
 
+    private boolean handleSimulate(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage("§cUsage: /valloot simulate <table> <rolls> [biome] [world] [night]");
+            return true;
+        }
+
+        String tableName = args[1];
+        LootTable table = plugin.getConfigManager().getLootTable(tableName);
+        if (table == null) {
+            sender.sendMessage("§cLoot table '" + tableName + "' not found.");
+            return true;
+        }
+
+        long rolls = parseRollCount(args[2]);
+        if (rolls <= 0 || rolls > 1_000_000_000L) {
+            sender.sendMessage("§cRoll count must be between 1 and 1B (suffixes k/m allowed), got: " + args[2]);
+            return true;
+        }
+
+        // Defaults come from the sender's position when they are a player
+        Player player = sender instanceof Player p ? p : null;
+        String biome = args.length >= 4 ? args[3].toUpperCase(Locale.ROOT)
+            : player != null ? player.getLocation().getBlock().getBiome().toString() : "PLAINS";
+        World world = args.length >= 5 ? Bukkit.getWorld(args[4])
+            : player != null ? player.getWorld() : Bukkit.getWorlds().get(0);
+        if (world == null) {
+            sender.sendMessage("§cWorld '" + args[4] + "' not found.");
+            return true;
+        }
+        boolean night = args.length >= 6
+            ? args[5].equalsIgnoreCase("night") || args[5].equalsIgnoreCase("true")
+            : world.getTime() >= 13000;
+
+        LootContext context = new LootContext(
+            player != null ? player.getUniqueId() : new UUID(0L, 0L),
+            player != null ? player.getName() : "simulation",
+            player != null ? player.getLocation().getBlockX() : 0,
+            player != null ? player.getLocation().getBlockY() : 0,
+            player != null ? player.getLocation().getBlockZ() : 0,
+            world.getName(),
+            world.getUID(),
+            world.getSeed(),
+            "simulate",
+            biome,
+            world.getTime(),
+            0,
+            night,
+            0,
+            java.util.Collections.emptyMap()
+        );
+
+        sender.sendMessage("§eSimulating §f" + rolls + "§e rolls of §f" + tableName +
+            "§e (biome " + biome + ", world " + world.getName() + ", " + (night ? "night" : "day") + ")...");
+
+        plugin.getSchedulerHelper().runAsyncThenSync(
+            () -> LootSimulator.simulate(table, context, rolls),
+            report -> sendSimulationReport(sender, report));
+        return true;
+    }
+
+    private void sendSimulationReport(CommandSender sender, LootSimulator.Report report) {
+        sender.sendMessage("§e=== Simulation: " + report.getTableName() + " ===");
+        sender.sendMessage(String.format("§6Rolls: §f%,d §6in §f%,dms §6(§f%,.0f§6 rolls/sec)",
+            report.getRolls(), report.getElapsedMs(), report.getRollsPerSecond()));
+        sender.sendMessage(String.format("§6Empty rolls: §f%.3f%%  §6Stacks/roll: §fmean %.2f, p99 %d",
+            report.getEmptyRate() * 100.0, report.getMeanStacksPerRoll(), report.getP99StacksPerRoll()));
+        if (report.getMaterials().isEmpty()) {
+            sender.sendMessage("§c(No items rolled)");
+            return;
+        }
+        sender.sendMessage("§6Material §7| in % of rolls | stacks/roll | mean stack | p99 stack");
+        for (LootSimulator.MaterialStats stats : report.getMaterials()) {
+            sender.sendMessage(String.format("  §f%s §7| §b%.3f%% §7| §b%.4f §7| §b%.2f §7| §b%d",
+                stats.getMaterial(), stats.getFrequency() * 100.0, stats.getStacksPerRoll(),
+                stats.getMeanStack(), stats.getP99Stack()));
+        }
+    }
+
+    /**
+     * Parse a roll count such as "5000", "250k" or "10m".
+     */
+    private long parseRollCount(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        long multiplier = 1;
+        if (lower.endsWith("k")) {
+            multiplier = 1_000L;
+            lower = lower.substring(0, lower.length() - 1);
+        } else if (lower.endsWith("m")) {
+            multiplier = 1_000_000L;
+            lower = lower.substring(0, lower.length() - 1);
+        }
+        try {
+            return Long.parseLong(lower) * multiplier;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     private boolean sendUsage(CommandSender sender) {
         sender.sendMessage("§e=== ValhallaLoot Commands ===");
         sender.sendMessage("§6/valloot reload §f- Reload configuration");
         sender.sendMessage("§6/valloot status [world] §f- Check manual conversion status");
         sender.sendMessage("§6/valloot bg-status §f- Check background conversion status");
         sender.sendMessage("§6/valloot test <table> [player] [--give] §f- Test a loot table");
+        sender.sendMessage("§6/valloot simulate <table> <rolls> [biome] [world] [night] §f- Monte Carlo drop rates");
+        sender.sendMessage("§6/valloot modifiers §f- List loot modifiers with timings");
         sender.sendMessage("§6/valloot convert <world|all> [--load-all-chunks] §f- Convert containers (manual)");
         sender.sendMessage("§6/valloot reset <world|all> confirm §f- Clear first-open markers (reset loot)");
         sender.sendMessage("§6/valloot restore <world|all> confirm §f- Restore original inventories");
@@ -1,26 +1,71 @@
 package dev.waystone.vallhaloot.config;
 
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.integration.TrinketRule;
+import dev.waystone.vallhaloot.integration.ValhallaTrinketsBridge;
 import dev.waystone.vallhaloot.loot.*;
-import org.bukkit.Material;
+import dev.waystone.vallhaloot.util.DebugLevel;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Loads and validates loot table configurations from YAML files.
  */
 public class ConfigManager {
+    private static final List<String> DEFAULT_PROFILE_REFRESH_EVENTS = List.of(
+        "me.athlaeos.valhallammo.event.PlayerSkillLevelChangeEvent",
+        "me.athlaeos.valhallammo.event.ValhallaPerkUnlockEvent");
+    // YAML parsing is CPU-bound; leave a core for the server while tables load at startup
+    private static final int TABLE_PARSER_THREADS =
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
     private final ValhallaLootPlugin plugin;
-    private final Map<String, LootTable> lootTables = new ConcurrentHashMap<>();
+    private final LootTableLoader tableLoader;
+    private final TableCache tableCache;
+    // Swapped whole on reload; readers always see a complete set of tables
+    private final AtomicReference<LootTableRegistry> registry = new AtomicReference<>(LootTableRegistry.EMPTY);
+    private final AtomicLong nextVersion = new AtomicLong(1);
+    // Every table update runs here, one at a time, so each builds on the last published registry
+    private final ExecutorService tableExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ValhallaLoot-TableLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private TableDirectoryWatcher tableWatcher;
+    private long watcherDebounceMillis;
+    private boolean dropRateReport;
+    private boolean watchTables;
+    private long watchDebounceMillis;
+    private boolean tableCacheEnabled;
     private ConfigurationSection mainConfig;
     private boolean perPlayerLoot;
+    private boolean recomputePlayerLoot;
+    private boolean prerollEnabled;
+    private int prerollCapacity;
+    private int prerollLowWater;
+    // Rebuilt on every settings load, so capacity and low-water follow /valloot reload
+    private volatile LootPrerollBuffer prerollBuffer;
+    private long profileCacheTtlSeconds = 60;
+    private List<String> profileRefreshEvents = DEFAULT_PROFILE_REFRESH_EVENTS;
 
     public ConfigManager(ValhallaLootPlugin plugin) {
         this.plugin = plugin;
+        this.tableLoader = new LootTableLoader(plugin.getLogger(), TABLE_PARSER_THREADS);
+        @SuppressWarnings("deprecation")
+        String pluginVersion = plugin.getDescription().getVersion();
+        this.tableCache = new TableCache(new File(plugin.getDataFolder(), "cache/tables.bin"),
+            pluginVersion + "/" + Bukkit.getBukkitVersion(), plugin.getLogger());
     }
 
     /**
@@ -51,38 +96,22 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Load config.yml and every table. Blocks until the tables are loaded; used at startup.
+     */
     public boolean loadConfig() {
         try {
-            // Load main config
-            plugin.getConfig().load(new File(plugin.getDataFolder(), "config.yml"));
-            this.mainConfig = plugin.getConfig();
-
-            // Check and update config version
-            checkAndUpdateConfigVersion();
-
-            // Read global flags
-            ConfigurationSection containers = mainConfig.getConfigurationSection("containers");
-            if (containers != null) {
-                this.perPlayerLoot = containers.getBoolean("per-player-loot", false);
+            loadSettings();
+            File tablesDir = tablesDir();
+            LootTableRegistry loaded = loadCachedTables(tablesDir);
+            if (loaded == null) {
+                loaded = tableLoader.loadAll(tablesDir, nextVersion.getAndIncrement());
+                publish(loaded);
+                saveTableCache(loaded, tablesDir);
             } else {
-                this.perPlayerLoot = false;
+                publish(loaded);
             }
-
-            // Load loot tables
-            File tablesDir = new File(plugin.getDataFolder(), "tables");
-            if (!tablesDir.exists()) {
-                tablesDir.mkdirs();
-                plugin.getLogger().info("Created tables directory");
-            }
-
-            File[] files = tablesDir.listFiles((dir, name) -> name.endsWith(".yml"));
-            if (files != null) {
-                for (File file : files) {
-                    loadLootTable(file);
-                }
-            }
-
-            plugin.getLogger().info("Loaded " + lootTables.size() + " loot tables");
+            updateTableWatcher(tablesDir);
             return true;
         } catch (Exception e) {
             plugin.getLogger().severe("Error loading configuration: " + e.getMessage());
@@ -91,129 +120,314 @@ public class ConfigManager {
         }
     }
 
-    private void loadLootTable(File file) {
-        try {
-            YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-            
-            String tableName = config.getString("name", file.getName().replace(".yml", ""));
-            boolean firstOpenOnly = config.getBoolean("first-open-only", true);
-            long respawnCooldown = config.getLong("respawn-cooldown-ms", 0);
-            double respawnVariance = config.getDouble("respawn-variance", 10.0);
-
-            List<LootPool> pools = new ArrayList<>();
-            ConfigurationSection poolsSection = config.getConfigurationSection("pools");
-
-            if (poolsSection != null) {
-                for (String poolKey : poolsSection.getKeys(false)) {
-                    LootPool pool = loadPool(poolsSection.getConfigurationSection(poolKey));
-                    if (pool != null) {
-                        pools.add(pool);
-                    }
-                }
-            }
+    /**
+     * Read the global flags from config.yml. Main thread.
+     */
+    private void loadSettings() throws Exception {
+        // Load main config
+        plugin.getConfig().load(new File(plugin.getDataFolder(), "config.yml"));
+        this.mainConfig = plugin.getConfig();
 
-            LootTable table = new LootTable(tableName, pools, firstOpenOnly, respawnCooldown, respawnVariance);
-            lootTables.put(tableName, table);
-            plugin.getLogger().info("Loaded loot table: " + tableName + " (" + pools.size() + " pools)");
+        // Check and update config version
+        checkAndUpdateConfigVersion();
 
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load table from " + file.getName() + ": " + e.getMessage());
+        // Read global flags
+        ConfigurationSection containers = mainConfig.getConfigurationSection("containers");
+        if (containers != null) {
+            this.perPlayerLoot = containers.getBoolean("per-player-loot", false);
+            this.recomputePlayerLoot = "recompute".equalsIgnoreCase(
+                containers.getString("per-player-storage", "snapshot"));
+        } else {
+            this.perPlayerLoot = false;
+            this.recomputePlayerLoot = false;
         }
-    }
 
-    private LootPool loadPool(ConfigurationSection section) {
-        try {
-            String poolName = section.getName();
-            int rolls = section.getInt("rolls", 1);
-            double rollBonus = section.getDouble("roll-bonus", 0.0);
-
-            List<LootEntry> entries = new ArrayList<>();
-            ConfigurationSection entriesSection = section.getConfigurationSection("entries");
-
-            if (entriesSection != null) {
-                for (String entryKey : entriesSection.getKeys(false)) {
-                    LootEntry entry = loadEntry(entriesSection.getConfigurationSection(entryKey));
-                    if (entry != null) {
-                        entries.add(entry);
-                    }
-                }
-            }
+        ConfigurationSection loot = mainConfig.getConfigurationSection("loot");
+        String randomMode = loot != null ? loot.getString("random-mode", "thread-local") : "thread-local";
+        LootEngine.setRandomProvider(LootRandomProvider.fromString(randomMode));
+        ConfigurationSection preroll = loot != null ? loot.getConfigurationSection("preroll") : null;
+        this.prerollEnabled = preroll != null && preroll.getBoolean("enabled", false);
+        this.prerollCapacity = preroll != null ? preroll.getInt("capacity", 32) : 32;
+        this.prerollLowWater = preroll != null ? preroll.getInt("low-water", 8) : 8;
+        if (prerollBuffer != null) {
+            prerollBuffer.clear();
+        }
+        this.prerollBuffer = new LootPrerollBuffer(prerollCapacity, prerollLowWater,
+            task -> plugin.getSchedulerHelper().runAsync(task));
+        this.dropRateReport = loot == null || loot.getBoolean("drop-rate-report", true);
+        ConfigurationSection watch = loot != null ? loot.getConfigurationSection("watch-tables") : null;
+        this.watchTables = watch == null || watch.getBoolean("enabled", true);
+        this.watchDebounceMillis = watch != null ? watch.getLong("debounce-ms", 500) : 500;
+        this.tableCacheEnabled = loot == null || loot.getBoolean("table-cache", true);
 
-            return new LootPool(poolName, entries, rolls, rollBonus);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load pool: " + e.getMessage());
-            return null;
+        ConfigurationSection profileCache = mainConfig.getConfigurationSection("valhalla-mmo.profile-cache");
+        this.profileCacheTtlSeconds = profileCache != null ? profileCache.getLong("ttl-seconds", 60) : 60;
+        this.profileRefreshEvents = profileCache != null && profileCache.isList("refresh-events")
+            ? profileCache.getStringList("refresh-events") : DEFAULT_PROFILE_REFRESH_EVENTS;
+    }
+
+    private File tablesDir() {
+        File tablesDir = new File(plugin.getDataFolder(), "tables");
+        if (!tablesDir.exists()) {
+            tablesDir.mkdirs();
+            plugin.getLogger().info("Created tables directory");
         }
+        return tablesDir;
     }
 
-    private LootEntry loadEntry(ConfigurationSection section) {
+    /**
+     * The tables from cache/tables.bin, or null if it is disabled or doesn't match the table files.
+     */
+    private LootTableRegistry loadCachedTables(File tablesDir) {
+        if (!tableCacheEnabled) {
+            return null;
+        }
         try {
-            String materialStr = section.getString("material");
-            if (materialStr == null) {
+            long start = System.nanoTime();
+            SortedMap<String, byte[]> sources = TableCache.readSources(tablesDir);
+            LootFlyweights flyweights = new LootFlyweights();
+            Map<String, LootTableLoader.LoadedTable> files = tableCache.read(sources, flyweights);
+            if (files == null) {
+                plugin.debug(DebugLevel.LOW, "Table cache missing or stale, parsing table files");
                 return null;
             }
+            // Later reloads resolve shared references against it; the cached tables already have them resolved
+            SharedLibrary shared = tableLoader.loadShared(sources, flyweights);
+            plugin.debug(DebugLevel.LOW, "Loaded %d table files from cache in %dms",
+                files.size(), (System.nanoTime() - start) / 1_000_000L);
+            return new LootTableRegistry(nextVersion.getAndIncrement(), files, shared);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read table files for the cache check: " + e.getMessage());
+            return null;
+        }
+    }
 
-            Material material = Material.matchMaterial(materialStr);
-            if (material == null) {
-                plugin.getLogger().warning("Invalid material: " + materialStr);
-                return null;
-            }
+    /**
+     * Write a published registry to cache/tables.bin on the table executor.
+     */
+    private void saveTableCache(LootTableRegistry loaded, File tablesDir) {
+        if (tableCacheEnabled && !tableExecutor.isShutdown()) {
+            tableExecutor.execute(() -> tableCache.write(loaded, tablesDir));
+        }
+    }
 
-            int minAmount = section.getInt("min-amount", 1);
-            int maxAmount = section.getInt("max-amount", 1);
-            double weight = section.getDouble("weight", 1.0);
-            String displayName = section.getString("display-name", null);
-            List<String> lore = section.getStringList("lore");
-            boolean overwrite = section.getBoolean("overwrite", false);
-
-            List<LootCondition> conditions = new ArrayList<>();
-            ConfigurationSection conditionsSection = section.getConfigurationSection("conditions");
-            if (conditionsSection != null) {
-                for (String condKey : conditionsSection.getKeys(false)) {
-                    LootCondition condition = loadCondition(condKey, conditionsSection.getString(condKey));
-                    if (condition != null) {
-                        conditions.add(condition);
+    /**
+     * Make a loaded registry live, unless a newer one was published meanwhile.
+     * Safe from any thread.
+     *
+     * @return whether the registry was published
+     */
+    private boolean publish(LootTableRegistry loaded) {
+        LootTableRegistry previous = registry.getAndAccumulate(loaded,
+            (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+        if (previous.getVersion() > loaded.getVersion()) {
+            return false;
+        }
+
+        // Rolls already running on replaced tables finish with them; only their caches are released.
+        // Unchanged tables, and pools and entries shared with the new tables, are the same instances
+        // and keep their caches.
+        Set<LootTable> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<LootPool> keptPools = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<LootEntry> keptEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (LootTable table : loaded.getTables()) {
+            kept.add(table);
+            for (LootPool pool : table.getPools()) {
+                keptPools.add(pool);
+                keptEntries.addAll(pool.getEntries());
+            }
+        }
+        for (LootTable table : previous.getTables()) {
+            if (kept.contains(table)) {
+                continue;
+            }
+            for (LootPool pool : table.getPools()) {
+                if (!keptPools.contains(pool)) {
+                    pool.invalidateSamplerCache();
+                }
+                for (LootEntry entry : pool.getEntries()) {
+                    if (!keptEntries.contains(entry)) {
+                        plugin.getLootItemFactory().forget(entry);
                     }
                 }
             }
+        }
+        ValhallaTrinketsBridge.clearCache();
 
-            return new LootEntry(material, minAmount, maxAmount, weight, displayName, lore, conditions, overwrite);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load entry: " + e.getMessage());
-            return null;
+        plugin.getLogger().info("Loaded " + loaded.size() + " loot tables (registry v" + loaded.getVersion() + ")");
+        if (dropRateReport) {
+            List<LootTable> snapshot = new ArrayList<>(loaded.getTables());
+            plugin.getSchedulerHelper().runAsync(() -> writeDropRateReport(snapshot));
         }
+        return true;
     }
 
-    private LootCondition loadCondition(String type, String value) {
+    /**
+     * Write exact per-material drop rates for every table to reports/drop-rates.txt.
+     * Tables are sorted by name and the output has no timestamps, so the file can be
+     * diffed between table revisions.
+     */
+    private void writeDropRateReport(List<LootTable> tables) {
         try {
-            return switch (type) {
-                case "biome" -> LootCondition.Conditions.biome(value);
-                case "world" -> LootCondition.Conditions.world(value);
-                case "night-only" -> LootCondition.Conditions.nightOnly();
-                case "day-only" -> LootCondition.Conditions.dayOnly();
-                default -> LootCondition.Conditions.alwaysTrue();
-            };
+            long start = System.nanoTime();
+            tables.sort(Comparator.comparing(LootTable::getName));
+            StringBuilder out = new StringBuilder();
+            out.append("# Exact drop rates per roll (unconditional entries only)").append(System.lineSeparator());
+            for (LootTable table : tables) {
+                out.append(System.lineSeparator()).append(LootAnalyzer.analyze(table, LootAnalyzer.UNCONDITIONAL).format());
+            }
+
+            File reportsDir = new File(plugin.getDataFolder(), "reports");
+            if (!reportsDir.exists()) {
+                reportsDir.mkdirs();
+            }
+            Files.writeString(new File(reportsDir, "drop-rates.txt").toPath(), out.toString(), StandardCharsets.UTF_8);
+            plugin.debug(DebugLevel.LOW, "Wrote drop-rate report for %d tables in %dms",
+                tables.size(), (System.nanoTime() - start) / 1_000_000L);
         } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load condition: " + e.getMessage());
-            return LootCondition.Conditions.alwaysTrue();
+            plugin.getLogger().warning("Failed to write drop-rate report: " + e.getMessage());
         }
     }
 
     public LootTable getLootTable(String name) {
-        return lootTables.get(name);
+        return registry.get().getTable(name);
+    }
+
+    /**
+     * Trinket settings from a table's "trinkets" section, or null if it has none.
+     */
+    public TrinketRule getTrinketRule(String tableName) {
+        return registry.get().getTrinketRule(tableName);
     }
 
     public Collection<LootTable> getAllLootTables() {
-        return lootTables.values();
+        return registry.get().getTables();
+    }
+
+    /**
+     * The live table registry.
+     */
+    public LootTableRegistry getRegistry() {
+        return registry.get();
+    }
+
+    /**
+     * Re-read config.yml, then re-read the tables off the main thread and swap them in at once.
+     * Only files whose content changed are parsed again. The current tables stay live until
+     * the new ones are ready. MUST be called on the main thread.
+     *
+     * @return completes with the live registry once the reload is published
+     */
+    public CompletableFuture<LootTableRegistry> reloadTables() {
+        try {
+            loadSettings();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error loading configuration: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        File tablesDir = tablesDir();
+        updateTableWatcher(tablesDir);
+        return CompletableFuture.supplyAsync(() -> refreshTables(tablesDir, null), tableExecutor);
+    }
+
+    /**
+     * Re-read the given table files (null for all) into a new registry and publish it if anything changed.
+     * Runs on the table executor.
+     */
+    private LootTableRegistry refreshTables(File tablesDir, Collection<String> fileNames) {
+        LootTableRegistry base = registry.get();
+        LootTableRegistry loaded = tableLoader.refresh(base, tablesDir, fileNames, nextVersion.get());
+        // A changed shared library must be published even if no table uses it yet,
+        // or later single-file refreshes would resolve refs against the old one
+        if (loaded.sameSourcesAs(base)) {
+            plugin.debug(DebugLevel.LOW, "Table files unchanged, keeping registry v%d", base.getVersion());
+            return base;
+        }
+        nextVersion.incrementAndGet();
+        if (publish(loaded)) {
+            saveTableCache(loaded, tablesDir);
+        }
+        return loaded;
+    }
+
+    /**
+     * Start, restart or stop the tables directory watcher to match the settings. Main thread.
+     */
+    private synchronized void updateTableWatcher(File tablesDir) {
+        if (tableWatcher != null && (!watchTables || watcherDebounceMillis != watchDebounceMillis)) {
+            tableWatcher.stop();
+            tableWatcher = null;
+        }
+        if (watchTables && tableWatcher == null) {
+            TableDirectoryWatcher watcher = new TableDirectoryWatcher(tablesDir.toPath(), watchDebounceMillis,
+                changed -> tableExecutor.execute(() -> refreshTables(tablesDir, changed)), plugin.getLogger());
+            try {
+                watcher.start();
+                tableWatcher = watcher;
+                watcherDebounceMillis = watchDebounceMillis;
+                plugin.debug(DebugLevel.LOW, "Watching %s for table changes", tablesDir);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Can't watch the tables directory, use /valloot reload after edits: " + e.getMessage());
+            }
+        }
     }
 
-    public void reloadTables() {
-        lootTables.clear();
-        loadConfig();
-        plugin.getLogger().info("Reloaded loot tables");
+    /**
+     * Stop the table watcher and loader thread.
+     */
+    public synchronized void shutdown() {
+        if (tableWatcher != null) {
+            tableWatcher.stop();
+            tableWatcher = null;
+        }
+        tableExecutor.shutdownNow();
+        tableLoader.shutdown();
     }
 
     public boolean isPerPlayerLootEnabled() {
         return perPlayerLoot;
     }
+
+    /**
+     * Per-player loot is stored as a seed record and regenerated on reopen, not serialized.
+     */
+    public boolean isRecomputePlayerLootEnabled() {
+        return perPlayerLoot && recomputePlayerLoot;
+    }
+
+    /**
+     * Pre-rolling only applies to independent per-thread random streams; seeded rolls
+     * must be made for their exact context.
+     */
+    public boolean isPrerollEnabled() {
+        return prerollEnabled && !isRecomputePlayerLootEnabled()
+            && LootEngine.getRandomProvider() == LootRandomProvider.THREAD_LOCAL;
+    }
+
+    public int getPrerollCapacity() {
+        return prerollCapacity;
+    }
+
+    public int getPrerollLowWater() {
+        return prerollLowWater;
+    }
+
+    /**
+     * Ready rolls for context-free tables, sized from the current settings. A reload
+     * replaces it, so callers fetch it per use instead of keeping it.
+     */
+    public LootPrerollBuffer getPrerollBuffer() {
+        return prerollBuffer;
+    }
+
+    public long getProfileCacheTtlSeconds() {
+        return profileCacheTtlSeconds;
+    }
+
+    /**
+     * ValhallaMMO event classes after which a player's cached profile is re-read.
+     */
+    public List<String> getProfileRefreshEvents() {
+        return profileRefreshEvents;
+    }
 }
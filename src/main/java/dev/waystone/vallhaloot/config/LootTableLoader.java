@@ -0,0 +1,568 @@
+package dev.waystone.vallhaloot.config;
+
+import dev.waystone.vallhaloot.integration.TrinketRule;
+import dev.waystone.vallhaloot.loot.*;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Parses the table YAML files into a {@link LootTableRegistry}.
+ * Only reads files and builds plain objects, so it runs fine off the main thread.
+ *
+ * Changed files are parsed in parallel on a small pool; each parse only touches its
+ * own file, and results are merged and logged in file name order afterwards, so the
+ * outcome doesn't depend on which parse finished first.
+ *
+ * Every load builds its tables through one {@link LootFlyweights}, seeded with the
+ * tables it keeps, so equal entries and pools are shared across tables and reloads.
+ * Tables may reference pools and entries from the {@link SharedLibrary}.
+ */
+class LootTableLoader {
+    private final Logger logger;
+    private final ExecutorService parsePool;
+
+    LootTableLoader(Logger logger, int threads) {
+        this.logger = logger;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.parsePool = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "ValhallaLoot-TableParser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void shutdown() {
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Load every *.yml in the directory into a new registry.
+     */
+    LootTableRegistry loadAll(File tablesDir, long version) {
+        return refresh(LootTableRegistry.EMPTY, tablesDir, null, version);
+    }
+
+    /**
+     * Build a registry from {@code base} with the given table files re-read. A file whose
+     * content hash is unchanged keeps its parsed table (and compiled samplers); a deleted
+     * file drops its table; a file that fails to parse keeps its previous table. When a
+     * shared file changed, the library is compiled again and every table using it is rebuilt.
+     *
+     * @param fileNames file names to check (shared files as "_shared/<name>"), or null for
+     *                  every *.yml in the directory and in _shared, plus every file in base
+     */
+    LootTableRegistry refresh(LootTableRegistry base, File tablesDir, Collection<String> fileNames, long version) {
+        LootFlyweights flyweights = new LootFlyweights();
+        base.getShared().seed(flyweights);
+        for (LoadedTable loaded : base.getFiles().values()) {
+            flyweights.seed(loaded.table());
+        }
+
+        SharedLibrary shared = base.getShared();
+        if (fileNames == null || fileNames.stream().anyMatch(name -> name.startsWith(SharedLibrary.PREFIX))) {
+            try {
+                SortedMap<String, byte[]> sharedSources = SharedLibrary.readSources(tablesDir);
+                if (SharedLibrary.fingerprint(sharedSources) != shared.getFingerprint()) {
+                    shared = loadShared(sharedSources, flyweights);
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to read shared table files, keeping the previous ones: " + e.getMessage());
+            }
+        }
+        boolean sharedChanged = shared != base.getShared();
+
+        Set<String> names = new TreeSet<>();
+        if (fileNames != null) {
+            fileNames.stream().filter(name -> !name.startsWith(SharedLibrary.PREFIX)).forEach(names::add);
+        } else {
+            names.addAll(base.getFiles().keySet());
+            String[] listed = tablesDir.list((dir, name) -> name.endsWith(".yml"));
+            if (listed != null) {
+                names.addAll(Arrays.asList(listed));
+            }
+        }
+        if (sharedChanged) {
+            base.getFiles().forEach((name, loaded) -> {
+                if (loaded.usesShared()) {
+                    names.add(name);
+                }
+            });
+        }
+
+        Map<String, LoadedTable> files = new TreeMap<>(base.getFiles());
+        List<SourceFile> changed = new ArrayList<>();
+        int unchanged = 0;
+        int removed = 0;
+        for (String name : names) {
+            File file = new File(tablesDir, name);
+            if (!file.isFile()) {
+                if (files.remove(name) != null) {
+                    removed++;
+                    logger.info("Removed loot table file: " + name);
+                }
+                continue;
+            }
+
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                logger.warning("Failed to read table file " + name + ": " + e.getMessage());
+                continue;
+            }
+            // Content hash: identical files keep the same revision across restarts (seeded rolls rely on this)
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            long revision = crc.getValue();
+
+            LoadedTable previous = files.get(name);
+            if (previous != null && previous.sourceRevision() == revision && !(sharedChanged && previous.usesShared())) {
+                unchanged++;
+                continue;
+            }
+            changed.add(new SourceFile(name, content, revision));
+        }
+
+        int parsed = 0;
+        for (ParsedFile result : parseAll(changed, shared, flyweights)) {
+            for (TableDiagnostic diagnostic : result.diagnostics()) {
+                logger.warning(diagnostic.toString());
+            }
+            if (result.loaded() != null) {
+                LootTable table = result.loaded().table();
+                logger.info("Loaded loot table: " + table.getName() + " (" + table.getPools().size() + " pools)");
+                files.put(result.fileName(), result.loaded());
+                parsed++;
+            }
+        }
+
+        LootTableRegistry registry = new LootTableRegistry(version, files, shared);
+        for (TableDiagnostic diagnostic : registry.getDiagnostics()) {
+            if (diagnostic.kind() == TableDiagnostic.Kind.DUPLICATE_TABLE_NAME) {
+                logger.warning(diagnostic.toString());
+            }
+        }
+        if (base != LootTableRegistry.EMPTY) {
+            logger.info("Table files: " + parsed + " reloaded, " + unchanged + " unchanged, " + removed + " removed");
+        }
+        return registry;
+    }
+
+    /**
+     * Compile the shared pools and entries from the "_shared/" files among the sources.
+     * Entries are loaded first, so shared pools can reference shared entries.
+     */
+    SharedLibrary loadShared(SortedMap<String, byte[]> sources, LootFlyweights flyweights) {
+        Map<String, Long> revisions = new TreeMap<>();
+        Map<String, YamlConfiguration> configs = new TreeMap<>();
+        List<TableDiagnostic> diagnostics = new ArrayList<>();
+        for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+            if (!source.getKey().startsWith(SharedLibrary.PREFIX)) {
+                continue;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(source.getValue());
+            revisions.put(source.getKey(), crc.getValue());
+            try {
+                YamlConfiguration config = new YamlConfiguration();
+                config.loadFromString(new String(source.getValue(), StandardCharsets.UTF_8));
+                configs.put(source.getKey(), config);
+            } catch (Exception e) {
+                diagnostics.add(new TableDiagnostic(source.getKey(), TableDiagnostic.Kind.INVALID_FILE, "",
+                    "Failed to load shared file: " + e.getMessage()));
+            }
+        }
+
+        Map<String, LootEntry> entries = new HashMap<>();
+        Map<String, String> entryFiles = new HashMap<>();
+        for (Map.Entry<String, YamlConfiguration> config : configs.entrySet()) {
+            FileParse parse = new FileParse(config.getKey(), null, flyweights);
+            ConfigurationSection section = config.getValue().getConfigurationSection("entries");
+            if (section != null) {
+                for (String id : section.getKeys(false)) {
+                    if (entryFiles.containsKey(id)) {
+                        parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath() + "." + id,
+                            "Shared entry " + id + " is also defined in " + entryFiles.get(id) + ", that one is used");
+                        continue;
+                    }
+                    LootEntry entry = loadEntry(section.getConfigurationSection(id), parse);
+                    if (entry != null) {
+                        entries.put(id, entry);
+                        entryFiles.put(id, config.getKey());
+                    }
+                }
+            }
+            diagnostics.addAll(parse.diagnostics);
+        }
+
+        SharedLibrary entriesOnly = new SharedLibrary(0, Map.of(), entries, Map.of(), List.of());
+        Map<String, LootPool> pools = new HashMap<>();
+        Map<String, String> poolFiles = new HashMap<>();
+        for (Map.Entry<String, YamlConfiguration> config : configs.entrySet()) {
+            FileParse parse = new FileParse(config.getKey(), entriesOnly, flyweights);
+            ConfigurationSection section = config.getValue().getConfigurationSection("pools");
+            if (section != null) {
+                for (String id : section.getKeys(false)) {
+                    if (poolFiles.containsKey(id)) {
+                        parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath() + "." + id,
+                            "Shared pool " + id + " is also defined in " + poolFiles.get(id) + ", that one is used");
+                        continue;
+                    }
+                    LootPool pool = loadPool(section.getConfigurationSection(id), parse);
+                    if (pool != null) {
+                        pools.put(id, pool);
+                        poolFiles.put(id, config.getKey());
+                    }
+                }
+            }
+            diagnostics.addAll(parse.diagnostics);
+        }
+
+        for (TableDiagnostic diagnostic : diagnostics) {
+            logger.warning(diagnostic.toString());
+        }
+        logger.info("Loaded shared tables: " + pools.size() + " pools, " + entries.size() + " entries");
+        return new SharedLibrary(SharedLibrary.fingerprint(sources), revisions, entries, pools, diagnostics);
+    }
+
+    /**
+     * Parse the files on the pool, in input order. One file is parsed on the calling thread.
+     */
+    private List<ParsedFile> parseAll(List<SourceFile> sources, SharedLibrary shared, LootFlyweights flyweights) {
+        if (sources.size() == 1) {
+            return List.of(loadTable(sources.get(0), shared, flyweights));
+        }
+        List<CompletableFuture<ParsedFile>> futures = new ArrayList<>(sources.size());
+        for (SourceFile source : sources) {
+            futures.add(CompletableFuture.supplyAsync(() -> loadTable(source, shared, flyweights), parsePool));
+        }
+        List<ParsedFile> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<ParsedFile> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Parse one table file. The result has no table if the file isn't valid YAML.
+     */
+    ParsedFile loadTable(SourceFile source, SharedLibrary shared, LootFlyweights flyweights) {
+        String fileName = source.fileName();
+        FileParse parse = new FileParse(fileName, shared, flyweights);
+        try {
+            YamlConfiguration config = new YamlConfiguration();
+            config.loadFromString(new String(source.content(), StandardCharsets.UTF_8));
+
+            String tableName = config.getString("name", fileName.replace(".yml", ""));
+            boolean firstOpenOnly = config.getBoolean("first-open-only", true);
+            long respawnCooldown = config.getLong("respawn-cooldown-ms", 0);
+            double respawnVariance = config.getDouble("respawn-variance", 10.0);
+
+            List<LootPool> pools = new ArrayList<>();
+            ConfigurationSection poolsSection = config.getConfigurationSection("pools");
+
+            if (poolsSection != null) {
+                for (String poolKey : poolsSection.getKeys(false)) {
+                    LootPool pool = loadPool(poolsSection.getConfigurationSection(poolKey), parse);
+                    if (pool != null) {
+                        pools.add(pool);
+                    }
+                }
+            }
+
+            // A table built from shared parts changes whenever the shared files do
+            long revision = source.revision();
+            if (parse.usesShared) {
+                CRC32 crc = new CRC32();
+                crc.update(source.content());
+                crc.update(ByteBuffer.allocate(Long.BYTES).putLong(shared.getFingerprint()).array());
+                revision = crc.getValue();
+            }
+            LootTable table = new LootTable(tableName, pools, firstOpenOnly, respawnCooldown, respawnVariance, revision);
+            ConfigurationSection trinketsSection = config.getConfigurationSection("trinkets");
+            TrinketRule trinketRule = trinketsSection != null ? loadTrinketRule(trinketsSection, parse) : null;
+            LoadedTable loaded = new LoadedTable(table, trinketRule, parse.diagnostics, source.revision(), parse.usesShared);
+            return new ParsedFile(fileName, loaded, parse.diagnostics);
+
+        } catch (Exception e) {
+            parse.report(TableDiagnostic.Kind.INVALID_FILE, "", "Failed to load table: " + e.getMessage());
+            return new ParsedFile(fileName, null, parse.diagnostics);
+        }
+    }
+
+    /**
+     * Parse a table's "trinkets" section: chance, default-weight, weights by "id:<n>" or
+     * "type:<n>", and optional skill-scaling (skill, per-level, max-chance).
+     */
+    private TrinketRule loadTrinketRule(ConfigurationSection section, FileParse parse) {
+        double chance = section.getDouble("chance", 0.0);
+        double defaultWeight = section.getDouble("default-weight", 1.0);
+
+        Map<Integer, Double> idWeights = new HashMap<>();
+        Map<Integer, Double> typeWeights = new HashMap<>();
+        ConfigurationSection weights = section.getConfigurationSection("weights");
+        if (weights != null) {
+            for (String key : weights.getKeys(false)) {
+                int colon = key.indexOf(':');
+                try {
+                    String kind = colon > 0 ? key.substring(0, colon).toLowerCase(Locale.ROOT) : "";
+                    int id = Integer.parseInt(key.substring(colon + 1).trim());
+                    double weight = weights.getDouble(key);
+                    switch (kind) {
+                        case "id" -> idWeights.put(id, weight);
+                        case "type" -> typeWeights.put(id, weight);
+                        default -> parse.report(TableDiagnostic.Kind.INVALID_VALUE, weights.getCurrentPath(),
+                            "Unknown trinket weight key (use id:<n> or type:<n>): " + key);
+                    }
+                } catch (NumberFormatException e) {
+                    parse.report(TableDiagnostic.Kind.INVALID_VALUE, weights.getCurrentPath(),
+                        "Invalid trinket weight key: " + key);
+                }
+            }
+        }
+
+        ConfigurationSection scaling = section.getConfigurationSection("skill-scaling");
+        String skill = scaling != null ? scaling.getString("skill", null) : null;
+        double perLevel = scaling != null ? scaling.getDouble("per-level", 0.0) : 0.0;
+        double maxChance = scaling != null ? scaling.getDouble("max-chance", 1.0) : 1.0;
+
+        return new TrinketRule(chance, idWeights, typeWeights, defaultWeight, skill, perLevel, maxChance);
+    }
+
+    private LootPool loadPool(ConfigurationSection section, FileParse parse) {
+        try {
+            String ref = section.getString("ref", null);
+            if (ref != null) {
+                return loadPoolRef(section, ref, parse);
+            }
+            String poolName = section.getName();
+            int rolls = section.getInt("rolls", 1);
+            double rollBonus = section.getDouble("roll-bonus", 0.0);
+
+            List<LootEntry> entries = new ArrayList<>();
+            ConfigurationSection entriesSection = section.getConfigurationSection("entries");
+
+            if (entriesSection != null) {
+                for (String entryKey : entriesSection.getKeys(false)) {
+                    LootEntry entry = loadEntry(entriesSection.getConfigurationSection(entryKey), parse);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            }
+
+            if (entries.stream().noneMatch(entry -> entry.getWeight() > 0)) {
+                parse.report(TableDiagnostic.Kind.ZERO_WEIGHT_POOL, section.getCurrentPath(),
+                    entries.isEmpty() ? "Pool has no entries" : "No entry has a positive weight, the pool never drops anything");
+            }
+
+            // Constructing the pool compiles its alias table once, here at load time (unless an equal pool exists)
+            return parse.flyweights.pool(poolName, entries, rolls, rollBonus);
+        } catch (Exception e) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath(), "Failed to load pool: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A pool with {@code ref: <id>}: the shared pool itself, or a copy with this section's rolls and roll-bonus.
+     */
+    private LootPool loadPoolRef(ConfigurationSection section, String ref, FileParse parse) {
+        LootPool shared = parse.sharedPool(ref);
+        if (shared == null) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath(), "Unknown shared pool: " + ref);
+            return null;
+        }
+        if (!section.contains("rolls") && !section.contains("roll-bonus")) {
+            return shared;
+        }
+        return parse.flyweights.pool(section.getName(), shared.getEntries(),
+            section.getInt("rolls", shared.getRolls()), section.getDouble("roll-bonus", shared.getRollBonus()));
+    }
+
+    private LootEntry loadEntry(ConfigurationSection section, FileParse parse) {
+        try {
+            String ref = section.getString("ref", null);
+            if (ref != null) {
+                return loadEntryRef(section, ref, parse);
+            }
+            String materialStr = section.getString("material");
+            if (materialStr == null) {
+                return null;
+            }
+
+            Material material = Material.matchMaterial(materialStr);
+            if (material == null) {
+                parse.report(TableDiagnostic.Kind.UNKNOWN_MATERIAL, section.getCurrentPath(),
+                    "Unknown material: " + materialStr);
+                return null;
+            }
+
+            int minAmount = section.getInt("min-amount", 1);
+            int maxAmount = section.getInt("max-amount", 1);
+            double weight = section.getDouble("weight", 1.0);
+            String displayName = section.getString("display-name", null);
+            List<String> lore = section.getStringList("lore");
+            boolean overwrite = section.getBoolean("overwrite", false);
+
+            List<LootCondition> conditions = loadConditions(section, parse);
+            checkWeight(section, weight, parse);
+            return parse.flyweights.entry(material.name(), minAmount, maxAmount, weight, displayName, lore,
+                conditions != null ? conditions : List.of(), overwrite);
+        } catch (Exception e) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath(), "Failed to load entry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * An entry with {@code ref: <id>}: the shared entry, with any other keys of this section overriding it.
+     */
+    private LootEntry loadEntryRef(ConfigurationSection section, String ref, FileParse parse) {
+        LootEntry shared = parse.sharedEntry(ref);
+        if (shared == null) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath(), "Unknown shared entry: " + ref);
+            return null;
+        }
+        if (section.contains("material")) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, section.getCurrentPath(),
+                "An entry with ref can't change the material, define a new entry instead");
+        }
+        double weight = section.getDouble("weight", shared.getWeight());
+        List<LootCondition> conditions = loadConditions(section, parse);
+        checkWeight(section, weight, parse);
+        return parse.flyweights.entry(shared.getMaterial(),
+            section.getInt("min-amount", shared.getMinAmount()),
+            section.getInt("max-amount", shared.getMaxAmount()),
+            weight,
+            section.getString("display-name", shared.getDisplayName()),
+            section.isList("lore") ? section.getStringList("lore") : shared.getLore(),
+            conditions != null ? conditions : shared.getConditions(),
+            section.getBoolean("overwrite", shared.isOverwrite()));
+    }
+
+    /**
+     * An entry's conditions, or null if it has no conditions section.
+     */
+    private List<LootCondition> loadConditions(ConfigurationSection section, FileParse parse) {
+        ConfigurationSection conditionsSection = section.getConfigurationSection("conditions");
+        if (conditionsSection == null) {
+            return null;
+        }
+        List<LootCondition> conditions = new ArrayList<>();
+        for (String condKey : conditionsSection.getKeys(false)) {
+            LootCondition condition = loadCondition(condKey, conditionsSection.getString(condKey), parse,
+                conditionsSection.getCurrentPath());
+            if (condition != null) {
+                conditions.add(condition);
+            }
+        }
+        if (conditionsSection.contains("night-only") && conditionsSection.contains("day-only")) {
+            parse.report(TableDiagnostic.Kind.UNREACHABLE_ENTRY, section.getCurrentPath(),
+                "Both night-only and day-only, the entry never applies");
+        }
+        return conditions;
+    }
+
+    private void checkWeight(ConfigurationSection section, double weight, FileParse parse) {
+        if (weight <= 0) {
+            parse.report(TableDiagnostic.Kind.UNREACHABLE_ENTRY, section.getCurrentPath(),
+                "Weight is " + weight + ", the entry is never picked");
+        }
+    }
+
+    private LootCondition loadCondition(String type, String value, FileParse parse, String location) {
+        try {
+            // skill-<name>: <min level>, e.g. skill-mining: 10
+            if (type.startsWith("skill-")) {
+                return LootCondition.Conditions.skillThreshold(type.substring("skill-".length()), Integer.parseInt(value));
+            }
+            return switch (type) {
+                case "permission" -> LootCondition.Conditions.permission(value);
+                case "min-level" -> LootCondition.Conditions.minLevel(Integer.parseInt(value));
+                case "biome" -> LootCondition.Conditions.biome(value);
+                case "world" -> LootCondition.Conditions.world(value);
+                case "night-only" -> LootCondition.Conditions.nightOnly();
+                case "day-only" -> LootCondition.Conditions.dayOnly();
+                default -> {
+                    // Most likely a typo; ignoring it silently would open a gated entry to everyone
+                    parse.report(TableDiagnostic.Kind.INVALID_VALUE, location + "." + type,
+                        "Unknown condition " + type + ", the entry applies without it");
+                    yield LootCondition.Conditions.alwaysTrue();
+                }
+            };
+        } catch (Exception e) {
+            parse.report(TableDiagnostic.Kind.INVALID_VALUE, location,
+                "Failed to load condition " + type + ": " + e.getMessage());
+            return LootCondition.Conditions.alwaysTrue();
+        }
+    }
+
+    /**
+     * A parsed table file, with the problems found in it.
+     *
+     * @param sourceRevision CRC32 of the file; equals the table's revision unless it uses shared parts
+     * @param usesShared whether the table references the shared library
+     */
+    record LoadedTable(LootTable table, TrinketRule trinketRule, List<TableDiagnostic> diagnostics,
+                       long sourceRevision, boolean usesShared) {
+        LoadedTable {
+            diagnostics = List.copyOf(diagnostics);
+        }
+    }
+
+    record SourceFile(String fileName, byte[] content, long revision) {
+    }
+
+    /**
+     * Outcome of parsing one file; {@code loaded} is null if the file is invalid.
+     */
+    record ParsedFile(String fileName, LoadedTable loaded, List<TableDiagnostic> diagnostics) {
+    }
+
+    /**
+     * State of parsing one file: its diagnostics and what it used from the shared library.
+     * Only used by the thread parsing that file.
+     */
+    private static final class FileParse {
+        private final String fileName;
+        private final SharedLibrary shared; // null while loading the shared entries themselves
+        private final LootFlyweights flyweights;
+        private final List<TableDiagnostic> diagnostics = new ArrayList<>();
+        private boolean usesShared;
+
+        FileParse(String fileName, SharedLibrary shared, LootFlyweights flyweights) {
+            this.fileName = fileName;
+            this.shared = shared;
+            this.flyweights = flyweights;
+        }
+
+        void report(TableDiagnostic.Kind kind, String location, String message) {
+            diagnostics.add(new TableDiagnostic(fileName, kind, location, message));
+        }
+
+        LootEntry sharedEntry(String id) {
+            usesShared = true;
+            return shared != null ? shared.getEntry(id) : null;
+        }
+
+        LootPool sharedPool(String id) {
+            usesShared = true;
+            return shared != null ? shared.getPool(id) : null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.waystone.vallhaloot.config;
+
+import dev.waystone.vallhaloot.integration.TrinketRule;
+import dev.waystone.vallhaloot.loot.LootTable;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of every loaded table. A reload builds a new registry off the
+ * main thread and publishes it in one swap, so lookups never see a half-loaded set.
+ */
+public final class LootTableRegistry {
+    static final LootTableRegistry EMPTY = new LootTableRegistry(0, Map.of(), SharedLibrary.EMPTY);
+
+    private final long version;
+    private final Map<String, LootTableLoader.LoadedTable> files; // by file name, sorted
+    private final Map<String, LootTable> tables;
+    private final Map<String, TrinketRule> trinketRules;
+    private final List<TableDiagnostic> diagnostics;
+    private final SharedLibrary shared;
+
+    LootTableRegistry(long version, Map<String, LootTableLoader.LoadedTable> files, SharedLibrary shared) {
+        this.version = version;
+        this.shared = shared;
+        this.files = Collections.unmodifiableMap(new TreeMap<>(files));
+        // Files are visited in name order, so a table name defined twice resolves the same way every load
+        Map<String, LootTable> tables = new HashMap<>();
+        Map<String, TrinketRule> trinketRules = new HashMap<>();
+        Map<String, String> definedIn = new HashMap<>();
+        List<TableDiagnostic> diagnostics = new ArrayList<>(shared.getDiagnostics());
+        for (Map.Entry<String, LootTableLoader.LoadedTable> file : this.files.entrySet()) {
+            LootTableLoader.LoadedTable loaded = file.getValue();
+            diagnostics.addAll(loaded.diagnostics());
+            String earlier = definedIn.put(loaded.table().getName(), file.getKey());
+            if (earlier != null) {
+                diagnostics.add(new TableDiagnostic(file.getKey(), TableDiagnostic.Kind.DUPLICATE_TABLE_NAME, "",
+                    "Table " + loaded.table().getName() + " is also defined in " + earlier + ", this file wins"));
+            }
+            tables.put(loaded.table().getName(), loaded.table());
+            if (loaded.trinketRule() != null) {
+                trinketRules.put(loaded.table().getName(), loaded.trinketRule());
+            } else {
+                trinketRules.remove(loaded.table().getName());
+            }
+        }
+        this.tables = Map.copyOf(tables);
+        this.trinketRules = Map.copyOf(trinketRules);
+        this.diagnostics = List.copyOf(diagnostics);
+    }
+
+    /**
+     * Increases with every published reload.
+     */
+    public long getVersion() { return version; }
+
+    public LootTable getTable(String name) {
+        return tables.get(name);
+    }
+
+    /**
+     * Trinket settings from a table's "trinkets" section, or null if it has none.
+     */
+    public TrinketRule getTrinketRule(String tableName) {
+        return trinketRules.get(tableName);
+    }
+
+    public Collection<LootTable> getTables() { return tables.values(); }
+    /** Problems found in the loaded files, in file name order. */
+    public List<TableDiagnostic> getDiagnostics() { return diagnostics; }
+    /** Parsed tables by source file name. */
+    Map<String, LootTableLoader.LoadedTable> getFiles() { return files; }
+    /** Shared pools and entries the tables were built with. */
+    SharedLibrary getShared() { return shared; }
+
+    /**
+     * Whether both were built from the same table and shared files, so publishing
+     * this one would change nothing.
+     */
+    boolean sameSourcesAs(LootTableRegistry other) {
+        return files.equals(other.files) && shared.getFingerprint() == other.shared.getFingerprint();
+    }
+    public int size() { return tables.size(); }
+
+    @Override
+    public String toString() {
+        return "LootTableRegistry{version=" + version + ", tables=" + tables.size() + "}";
+    }
+}
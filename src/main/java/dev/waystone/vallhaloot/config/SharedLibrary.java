@@ -0,0 +1,92 @@
+package dev.waystone.vallhaloot.config;
+
+import dev.waystone.vallhaloot.loot.LootEntry;
+import dev.waystone.vallhaloot.loot.LootFlyweights;
+import dev.waystone.vallhaloot.loot.LootPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Pools and entries defined once in tables/_shared/*.yml, under "pools" and "entries".
+ * Tables use them with {@code ref: <id>} in place of a pool or entry definition, and
+ * may override a pool's rolls and roll-bonus or an entry's amounts, weight, name, lore,
+ * conditions and overwrite flag. Ids are global across the shared files.
+ *
+ * Compiled once per change to any shared file; tables that use it are then rebuilt
+ * against the new library.
+ */
+final class SharedLibrary {
+    static final String DIRECTORY = "_shared";
+    /** Prefix of shared file names among table file names, e.g. "_shared/food.yml". */
+    static final String PREFIX = DIRECTORY + "/";
+    static final SharedLibrary EMPTY = new SharedLibrary(fingerprint(new TreeMap<>()), Map.of(), Map.of(), Map.of(), List.of());
+
+    private final long fingerprint;
+    private final Map<String, Long> sourceRevisions;
+    private final Map<String, LootEntry> entries;
+    private final Map<String, LootPool> pools;
+    private final List<TableDiagnostic> diagnostics;
+
+    SharedLibrary(long fingerprint, Map<String, Long> sourceRevisions, Map<String, LootEntry> entries,
+                  Map<String, LootPool> pools, List<TableDiagnostic> diagnostics) {
+        this.fingerprint = fingerprint;
+        this.sourceRevisions = Map.copyOf(sourceRevisions);
+        this.entries = Map.copyOf(entries);
+        this.pools = Map.copyOf(pools);
+        this.diagnostics = List.copyOf(diagnostics);
+    }
+
+    /**
+     * Content of every *.yml in tables/_shared, by prefixed file name.
+     */
+    static SortedMap<String, byte[]> readSources(File tablesDir) throws IOException {
+        SortedMap<String, byte[]> sources = new TreeMap<>();
+        File sharedDir = new File(tablesDir, DIRECTORY);
+        String[] listed = sharedDir.list((dir, name) -> name.endsWith(".yml"));
+        if (listed != null) {
+            for (String name : listed) {
+                sources.put(PREFIX + name, Files.readAllBytes(new File(sharedDir, name).toPath()));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Hash over the shared files' names and content; other entries in the map are ignored.
+     */
+    static long fingerprint(SortedMap<String, byte[]> sources) {
+        CRC32 crc = new CRC32();
+        for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+            if (source.getKey().startsWith(PREFIX)) {
+                crc.update(source.getKey().getBytes(StandardCharsets.UTF_8));
+                crc.update(source.getValue());
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Register the compiled pools and entries, so tables built later share them.
+     */
+    void seed(LootFlyweights flyweights) {
+        entries.values().forEach(flyweights::entry);
+        pools.values().forEach(flyweights::seed);
+    }
+
+    long getFingerprint() { return fingerprint; }
+    /** CRC32 of each shared file, by prefixed file name. */
+    Map<String, Long> getSourceRevisions() { return sourceRevisions; }
+    LootEntry getEntry(String id) { return entries.get(id); }
+    LootPool getPool(String id) { return pools.get(id); }
+    List<TableDiagnostic> getDiagnostics() { return diagnostics; }
+
+    @Override
+    public String toString() {
+        return "SharedLibrary{files=" + sourceRevisions.size() + ", pools=" + pools.size() + ", entries=" + entries.size() + "}";
+    }
+}
@@ -0,0 +1,227 @@
+package dev.waystone.vallhaloot.config;
+
+import dev.waystone.vallhaloot.integration.TrinketRule;
+import dev.waystone.vallhaloot.loot.LootFlyweights;
+import dev.waystone.vallhaloot.loot.LootTable;
+import dev.waystone.vallhaloot.loot.LootTableCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled tables saved in one binary file, so a restart with unchanged table files
+ * skips YAML parsing.
+ *
+ * The file is keyed by a SHA-256 over the plugin and server versions and every table
+ * and shared file's name and content. Any difference is a miss and the tables are parsed as usual;
+ * the cache is rewritten after every published registry.
+ */
+class TableCache {
+    private static final int MAGIC = 0x564C5443; // "VLTC"
+    private static final int FORMAT = 3;
+
+    private final Path file;
+    private final String buildId;
+    private final Logger logger;
+
+    /**
+     * @param buildId plugin and server version; a different one invalidates the cache
+     */
+    TableCache(File file, String buildId, Logger logger) {
+        this.file = file.toPath();
+        this.buildId = buildId;
+        this.logger = logger;
+    }
+
+    /**
+     * Content of every *.yml in the directory and in _shared, by file name.
+     */
+    static SortedMap<String, byte[]> readSources(File tablesDir) throws IOException {
+        SortedMap<String, byte[]> sources = new TreeMap<>();
+        String[] listed = tablesDir.list((dir, name) -> name.endsWith(".yml"));
+        if (listed != null) {
+            for (String name : listed) {
+                sources.put(name, Files.readAllBytes(new File(tablesDir, name).toPath()));
+            }
+        }
+        sources.putAll(SharedLibrary.readSources(tablesDir));
+        return sources;
+    }
+
+    /**
+     * The cached tables for exactly these sources, or null on a miss or unreadable cache.
+     * Entries and pools are built through the given flyweights.
+     */
+    Map<String, LootTableLoader.LoadedTable> read(SortedMap<String, byte[]> sources, LootFlyweights flyweights) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            // Read onto the heap, not mapped: a mapping stays open until GC, and on Windows
+            // the file can't be replaced while it is, so the next write would fail
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() < 8 + 32 || in.getInt() != MAGIC || in.getInt() != FORMAT) {
+                return null;
+            }
+            byte[] storedKey = new byte[32];
+            in.get(storedKey);
+            if (!MessageDigest.isEqual(storedKey, key(sources))) {
+                return null;
+            }
+
+            LootTableCodec.Decoder decoder = new LootTableCodec.Decoder(in, flyweights);
+            int count = decoder.readInt();
+            Map<String, LootTableLoader.LoadedTable> files = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                String fileName = decoder.readString();
+                LootTable table = decoder.readTable();
+                TrinketRule trinketRule = decoder.readBoolean() ? readTrinketRule(decoder) : null;
+                List<TableDiagnostic> diagnostics = readDiagnostics(decoder, fileName);
+                long sourceRevision = decoder.readLong();
+                boolean usesShared = decoder.readBoolean();
+                files.put(fileName, new LootTableLoader.LoadedTable(table, trinketRule, diagnostics, sourceRevision, usesShared));
+            }
+            return files;
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Ignoring unreadable table cache: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Save a registry, if it still matches the files on disk. A file that failed to parse
+     * or changed since the registry was built would make the cache stale, so nothing is
+     * written then; the next publish tries again.
+     */
+    void write(LootTableRegistry registry, File tablesDir) {
+        try {
+            SortedMap<String, byte[]> sources = readSources(tablesDir);
+            Map<String, LootTableLoader.LoadedTable> files = registry.getFiles();
+            Map<String, Long> revisions = new HashMap<>(registry.getShared().getSourceRevisions());
+            files.forEach((name, loaded) -> revisions.put(name, loaded.sourceRevision()));
+            if (!sources.keySet().equals(revisions.keySet())) {
+                return;
+            }
+            for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+                CRC32 crc = new CRC32();
+                crc.update(source.getValue());
+                if (revisions.get(source.getKey()) != crc.getValue()) {
+                    return;
+                }
+            }
+
+            LootTableCodec.Encoder encoder = new LootTableCodec.Encoder();
+            encoder.writeInt(files.size());
+            for (Map.Entry<String, LootTableLoader.LoadedTable> loaded : files.entrySet()) {
+                encoder.writeString(loaded.getKey());
+                encoder.writeTable(loaded.getValue().table());
+                TrinketRule trinketRule = loaded.getValue().trinketRule();
+                encoder.writeBoolean(trinketRule != null);
+                if (trinketRule != null) {
+                    writeTrinketRule(encoder, trinketRule);
+                }
+                writeDiagnostics(encoder, loaded.getValue().diagnostics());
+                encoder.writeLong(loaded.getValue().sourceRevision());
+                encoder.writeBoolean(loaded.getValue().usesShared());
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.write(key(sources));
+            out.write(encoder.toByteArray());
+
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning("Failed to write table cache: " + e.getMessage());
+        }
+    }
+
+    private byte[] key(SortedMap<String, byte[]> sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buildId.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+                byte[] name = source.getKey().getBytes(StandardCharsets.UTF_8);
+                // Lengths first, so moving bytes between a name and its content changes the key
+                digest.update(ByteBuffer.allocate(8).putInt(name.length).putInt(source.getValue().length).array());
+                digest.update(name);
+                digest.update(source.getValue());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+
+    private static void writeTrinketRule(LootTableCodec.Encoder encoder, TrinketRule rule) throws IOException {
+        encoder.writeDouble(rule.getChance());
+        writeWeights(encoder, rule.getIdWeights());
+        writeWeights(encoder, rule.getTypeWeights());
+        encoder.writeDouble(rule.getDefaultWeight());
+        encoder.writeString(rule.getScalingSkill());
+        encoder.writeDouble(rule.getPerLevel());
+        encoder.writeDouble(rule.getMaxChance());
+    }
+
+    private static void writeWeights(LootTableCodec.Encoder encoder, Map<Integer, Double> weights) throws IOException {
+        encoder.writeInt(weights.size());
+        for (Map.Entry<Integer, Double> weight : weights.entrySet()) {
+            encoder.writeInt(weight.getKey());
+            encoder.writeDouble(weight.getValue());
+        }
+    }
+
+    private static TrinketRule readTrinketRule(LootTableCodec.Decoder decoder) {
+        double chance = decoder.readDouble();
+        Map<Integer, Double> idWeights = readWeights(decoder);
+        Map<Integer, Double> typeWeights = readWeights(decoder);
+        double defaultWeight = decoder.readDouble();
+        String scalingSkill = decoder.readString();
+        double perLevel = decoder.readDouble();
+        double maxChance = decoder.readDouble();
+        return new TrinketRule(chance, idWeights, typeWeights, defaultWeight, scalingSkill, perLevel, maxChance);
+    }
+
+    private static void writeDiagnostics(LootTableCodec.Encoder encoder, List<TableDiagnostic> diagnostics) throws IOException {
+        encoder.writeInt(diagnostics.size());
+        for (TableDiagnostic diagnostic : diagnostics) {
+            encoder.writeString(diagnostic.kind().name());
+            encoder.writeString(diagnostic.location());
+            encoder.writeString(diagnostic.message());
+        }
+    }
+
+    private static List<TableDiagnostic> readDiagnostics(LootTableCodec.Decoder decoder, String fileName) {
+        int size = decoder.readInt();
+        List<TableDiagnostic> diagnostics = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            diagnostics.add(new TableDiagnostic(fileName, TableDiagnostic.Kind.valueOf(decoder.readString()),
+                decoder.readString(), decoder.readString()));
+        }
+        return diagnostics;
+    }
+
+    private static Map<Integer, Double> readWeights(LootTableCodec.Decoder decoder) {
+        int size = decoder.readInt();
+        Map<Integer, Double> weights = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            weights.put(decoder.readInt(), decoder.readDouble());
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,29 @@
+package dev.waystone.vallhaloot.config;
+
+/**
+ * A problem found while loading a table file. The table still loads without the
+ * offending part, unless the whole file is invalid.
+ *
+ * @param fileName table file the problem is in
+ * @param location path inside the file, e.g. "pools.main.entries.gold", or "" for the whole file
+ */
+public record TableDiagnostic(String fileName, Kind kind, String location, String message) {
+    public enum Kind {
+        /** The file couldn't be parsed; its previous table (if any) stays loaded. */
+        INVALID_FILE,
+        /** A pool, entry, condition or trinket setting couldn't be read and was skipped. */
+        INVALID_VALUE,
+        UNKNOWN_MATERIAL,
+        /** A pool with no entry of positive weight never drops anything. */
+        ZERO_WEIGHT_POOL,
+        /** An entry that can never be picked (zero weight or contradicting conditions). */
+        UNREACHABLE_ENTRY,
+        /** Two files define the same table name; the later file name wins. */
+        DUPLICATE_TABLE_NAME
+    }
+
+    @Override
+    public String toString() {
+        return fileName + (location.isEmpty() ? "" : " @ " + location) + ": " + message;
+    }
+}
@@ -0,0 +1,146 @@
+package dev.waystone.vallhaloot.config;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Watches the tables directory (and its _shared directory) and reports changed *.yml
+ * files once edits settle. Shared files are reported as "_shared/<name>".
+ *
+ * Editors often write a file in several steps (truncate, write, rename), so events
+ * are collected until no new one has arrived for the debounce delay, then handed
+ * over as one batch (null when every file must be rechecked). Runs on its own daemon
+ * thread; the callback runs on the debounce thread, never the main thread.
+ */
+class TableDirectoryWatcher {
+    private final Path directory;
+    private final Path sharedDirectory;
+    private final long debounceMillis;
+    private final Consumer<Set<String>> onChange;
+    private final Logger logger;
+    private final Set<String> pending = new HashSet<>(); // guarded by this
+    private boolean rescanAll; // guarded by this
+    private final ScheduledExecutorService debouncer;
+    private ScheduledFuture<?> flush; // guarded by this
+    private WatchService watchService;
+    private Thread thread;
+
+    TableDirectoryWatcher(Path directory, long debounceMillis, Consumer<Set<String>> onChange, Logger logger) {
+        this.directory = directory;
+        this.sharedDirectory = directory.resolve(SharedLibrary.DIRECTORY);
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.onChange = onChange;
+        this.logger = logger;
+        this.debouncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable, "ValhallaLoot-TableWatcher-Debounce");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        register(directory);
+        if (Files.isDirectory(sharedDirectory)) {
+            register(sharedDirectory);
+        }
+        thread = new Thread(this::run, "ValhallaLoot-TableWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void register(Path dir) throws IOException {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to close table watcher: " + e.getMessage());
+        }
+        debouncer.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean shared = sharedDirectory.equals(key.watchable());
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost: treat every file as changed (the loader skips unchanged content)
+                        schedule(null);
+                    } else if (event.context() instanceof Path path && path.toString().endsWith(".yml")) {
+                        schedule(shared ? SharedLibrary.PREFIX + path : path.toString());
+                    } else if (!shared && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && event.context() instanceof Path path && path.equals(sharedDirectory.getFileName())) {
+                        // _shared was created after startup; watch it and pick up whatever it already holds
+                        try {
+                            register(sharedDirectory);
+                        } catch (IOException e) {
+                            logger.warning("Can't watch the shared tables directory: " + e.getMessage());
+                        }
+                        schedule(SharedLibrary.PREFIX);
+                    }
+                }
+                if (!key.reset()) {
+                    if (shared) {
+                        schedule(SharedLibrary.PREFIX); // _shared was deleted
+                        continue;
+                    }
+                    logger.warning("Tables directory is no longer accessible, stopped watching it");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Add a changed file (null for "all files") and restart the debounce delay.
+     */
+    private synchronized void schedule(String fileName) {
+        if (fileName == null) {
+            rescanAll = true;
+        } else {
+            pending.add(fileName);
+        }
+        if (flush != null) {
+            flush.cancel(false);
+        }
+        flush = debouncer.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        Set<String> changed;
+        synchronized (this) {
+            changed = rescanAll ? null : new TreeSet<>(pending);
+            pending.clear();
+            rescanAll = false;
+            flush = null;
+        }
+        if (changed != null && changed.isEmpty()) {
+            return;
+        }
+        try {
+            onChange.accept(changed);
+        } catch (RuntimeException e) {
+            logger.warning("Failed to apply table changes: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.waystone.vallhaloot.integration;
+
+import dev.waystone.vallhaloot.loot.AliasSampler;
+
+import java.util.*;
+
+/**
+ * A table's trinket settings: how likely a roll is to add a default trinket, and
+ * which trinkets are favoured.
+ *
+ * Weights are matched by trinket id first, then by trinket type; other trinkets
+ * get the default weight. The weights are compiled into an {@link AliasSampler}
+ * per default trinket catalog (see {@link ValhallaTrinketsBridge#pick}).
+ */
+public final class TrinketRule {
+    // Chances used before tables had a trinkets section; kept for tables that still don't
+    private static final Map<String, TrinketRule> LEGACY = Map.of(
+        "trial_chambers", uniform(0.15),
+        "end_city", uniform(0.10),
+        "ancient_city", uniform(0.08),
+        "pillager_outpost", uniform(0.12));
+
+    private final double chance;
+    private final Map<Integer, Double> idWeights;
+    private final Map<Integer, Double> typeWeights;
+    private final double defaultWeight;
+    // Optional skill scaling: chance + level * perLevel, capped at maxChance
+    private final String scalingSkill;
+    private final double perLevel;
+    private final double maxChance;
+
+    public TrinketRule(double chance, Map<Integer, Double> idWeights, Map<Integer, Double> typeWeights,
+                       double defaultWeight, String scalingSkill, double perLevel, double maxChance) {
+        this.chance = chance;
+        this.idWeights = Map.copyOf(idWeights);
+        this.typeWeights = Map.copyOf(typeWeights);
+        this.defaultWeight = defaultWeight;
+        this.scalingSkill = scalingSkill != null ? scalingSkill.toLowerCase(Locale.ROOT) : null;
+        this.perLevel = perLevel;
+        this.maxChance = maxChance;
+    }
+
+    /**
+     * A flat chance with every trinket equally likely (the pre-config behaviour).
+     */
+    public static TrinketRule uniform(double chance) {
+        return new TrinketRule(chance, Map.of(), Map.of(), 1.0, null, 0.0, 1.0);
+    }
+
+    /**
+     * Built-in rule for a table without a trinkets section, or null if it gets no trinkets.
+     */
+    public static TrinketRule legacy(String tableName) {
+        return LEGACY.get(tableName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Chance of adding a trinket for a player, with skill scaling applied.
+     */
+    public double chanceFor(ValhallaProfile profile) {
+        if (scalingSkill == null || profile == null) {
+            return chance;
+        }
+        int level = profile.getSkillLevel(scalingSkill);
+        if (level <= 0) {
+            return chance;
+        }
+        return Math.min(maxChance, chance + level * perLevel);
+    }
+
+    /**
+     * Weight of one trinket; id weights win over type weights.
+     */
+    public double weightOf(Integer trinketId, Integer trinketType) {
+        Double weight = trinketId != null ? idWeights.get(trinketId) : null;
+        if (weight == null && trinketType != null) {
+            weight = typeWeights.get(trinketType);
+        }
+        return weight != null ? weight : defaultWeight;
+    }
+
+    /**
+     * Alias sampler over the given trinkets, or null if none has a positive weight.
+     */
+    AliasSampler compile(List<ValhallaTrinketsBridge.DefaultTrinket> trinkets) {
+        double[] weights = new double[trinkets.size()];
+        for (int i = 0; i < weights.length; i++) {
+            ValhallaTrinketsBridge.DefaultTrinket trinket = trinkets.get(i);
+            weights[i] = weightOf(trinket.getTrinketId(), trinket.getTrinketType());
+        }
+        return AliasSampler.of(weights);
+    }
+
+    public double getChance() { return chance; }
+    public Map<Integer, Double> getIdWeights() { return idWeights; }
+    public Map<Integer, Double> getTypeWeights() { return typeWeights; }
+    public double getDefaultWeight() { return defaultWeight; }
+    public String getScalingSkill() { return scalingSkill; }
+    public double getPerLevel() { return perLevel; }
+    public double getMaxChance() { return maxChance; }
+
+    @Override
+    public String toString() {
+        return "TrinketRule{chance=" + chance + ", ids=" + idWeights + ", types=" + typeWeights +
+               (scalingSkill != null ? ", skill=" + scalingSkill : "") + "}";
+    }
+}
@@ -1,15 +1,13 @@
 package dev.waystone.vallhaloot.integration;
 
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.loot.ContextFacets;
 import dev.waystone.vallhaloot.loot.LootContext;
 import dev.waystone.vallhaloot.loot.LootModifier;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Integration layer for ValhallaMMO.
  * Gracefully handles the absence of ValhallaMMO and provides sensible defaults.
@@ -21,19 +19,26 @@ public class ValhallaHook {
     private final ValhallaLootPlugin plugin;
     private final boolean available;
     private final ValhallaModifier valhallaModifier;
+    private final ValhallaProfileCache profileCache;
+    private final ValhallaTrinketsAdapter trinketsAdapter;
     private final LootModifier noopModifier;
 
     public ValhallaHook(ValhallaLootPlugin plugin) {
         this.plugin = plugin;
         Plugin valhallaPlugin = Bukkit.getPluginManager().getPlugin("ValhallaMMO");
         this.available = valhallaPlugin != null && valhallaPlugin.isEnabled();
+        this.trinketsAdapter = new ValhallaTrinketsAdapter(plugin);
         
         if (this.available) {
             plugin.getLogger().info("ValhallaMMO detected, initializing integration...");
-            this.valhallaModifier = new ValhallaModifier(plugin, valhallaPlugin);
+            this.profileCache = new ValhallaProfileCache(plugin, valhallaPlugin,
+                plugin.getConfigManager().getProfileCacheTtlSeconds(),
+                plugin.getConfigManager().getProfileRefreshEvents());
+            this.valhallaModifier = new ValhallaModifier(plugin, valhallaPlugin, profileCache);
             this.noopModifier = null;
         } else {
             plugin.getLogger().info("ValhallaMMO not found, using standalone mode");
+            this.profileCache = null;
             this.valhallaModifier = null;
             this.noopModifier = new NoopValhallaModifier();
         }
@@ -43,6 +48,20 @@ public class ValhallaHook {
         return available;
     }
 
+    /**
+     * Per-player ValhallaMMO profiles, or null when ValhallaMMO isn't available.
+     */
+    public ValhallaProfileCache getProfileCache() {
+        return profileCache;
+    }
+
+    /**
+     * ValhallaTrinkets access; a no-op while ValhallaTrinkets isn't enabled.
+     */
+    public ValhallaTrinketsAdapter getTrinketsAdapter() {
+        return trinketsAdapter;
+    }
+
     /**
      * Get a loot modifier for the given player context.
      * Returns a modifier that applies ValhallaMMO-based changes (skills, perks, etc).
@@ -56,32 +75,40 @@ public class ValhallaHook {
     }
 
     /**
-     * Enrich a loot context with ValhallaMMO data.
-     * Loads player skills, perks, stats, and other relevant info into the context metadata.
-     * Safe to call from any thread, but try to avoid calling frequently from async.
+     * Enrich a loot context with the player data a table's conditions read.
+     * Only the given facets are fetched, so tables without skill, permission or
+     * level conditions cost nothing here.
+     * MUST be called on the main thread (permission checks).
      */
-    public Map<String, Object> enrichContext(Player player, LootContext baseContext) {
-        Map<String, Object> metadata = new HashMap<>();
-        
+    public void enrichContext(Player player, ContextFacets facets, LootContext.Builder context) {
+        if (facets.isEmpty()) {
+            return;
+        }
+
+        // Permissions are a Bukkit check and work without ValhallaMMO
+        for (int i = 0; i < facets.getPermissions().size(); i++) {
+            if (player.hasPermission(facets.getPermissions().get(i))) {
+                context.permission(facets.getPermissionSlot(i));
+            }
+        }
+
         if (!available) {
-            return metadata;
+            return;
         }
 
-        // Attempt to load ValhallaMMO data
-        // This would require access to ValhallaMMO APIs or event systems
-        // For now, we scaffold the structure that would be filled in
-        
         try {
-            // These would be actual calls to ValhallaMMO API
-            // e.g., valhallaAPI.getPlayerSkills(player)
-            // For now, we'll rely on the ValhallaModifier to fill these in
-            
-            metadata.put("valhalla_available", true);
-            metadata.put("player_obj", player);
+            ValhallaProfile profile = profileCache.getProfile(player);
+            for (int i = 0; i < facets.getSkills().size(); i++) {
+                int level = profile.getSkillLevel(facets.getSkills().get(i));
+                if (level >= 0) {
+                    context.skill(facets.getSkillSlot(i), level);
+                }
+            }
+            if (facets.needsLevel()) {
+                context.playerLevel(profile.getLevel());
+            }
         } catch (Exception e) {
             plugin.getLogger().warning("Error enriching context with ValhallaMMO data: " + e.getMessage());
         }
-
-        return metadata;
     }
 }
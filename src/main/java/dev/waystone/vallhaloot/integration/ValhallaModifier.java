@@ -1,6 +1,7 @@
 package dev.waystone.vallhaloot.integration;
 
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.bukkit.ItemLootModifier;
 import dev.waystone.vallhaloot.loot.LootContext;
 import dev.waystone.vallhaloot.loot.LootModifier;
 import dev.waystone.vallhaloot.loot.LootRollResult;
@@ -8,7 +9,7 @@ import dev.waystone.vallhaloot.util.DebugLevel;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.inventory.ItemStack;
-import java.util.Locale;
+import java.util.List;
 
 /**
  * ValhallaMMO loot modifier.
@@ -20,32 +21,51 @@ import java.util.Locale;
  * - Add extra loot pool entries for high-skill players
  * - Apply rarity multipliers based on perks
  * - Respect enchantment reroll chances from ValhallaMMO
+ *
+ * Trinkets are picked with the roll, but their ItemStacks are only built in
+ * {@link #modifyItems}, on the main thread.
  */
-public class ValhallaModifier implements LootModifier {
+public class ValhallaModifier implements ItemLootModifier {
     private final ValhallaLootPlugin plugin;
     private final Plugin valhallaPlugin;
+    private final ValhallaProfileCache profileCache;
     private final Player player;
+    private final ValhallaProfile profile;
     private final LootContext context;
+    // Trinket picked during modify(), built in modifyItems()
+    private volatile ValhallaTrinketsBridge.DefaultTrinket pendingTrinket;
 
-    public ValhallaModifier(ValhallaLootPlugin plugin, Plugin valhallaPlugin) {
+    public ValhallaModifier(ValhallaLootPlugin plugin, Plugin valhallaPlugin, ValhallaProfileCache profileCache) {
         this.plugin = plugin;
         this.valhallaPlugin = valhallaPlugin;
+        this.profileCache = profileCache;
         this.player = null;
+        this.profile = ValhallaProfile.EMPTY;
         this.context = null;
     }
 
-    private ValhallaModifier(ValhallaLootPlugin plugin, Plugin valhallaPlugin, Player player, LootContext context) {
-        this.plugin = plugin;
-        this.valhallaPlugin = valhallaPlugin;
+    private ValhallaModifier(ValhallaModifier base, Player player, ValhallaProfile profile, LootContext context) {
+        this.plugin = base.plugin;
+        this.valhallaPlugin = base.valhallaPlugin;
+        this.profileCache = base.profileCache;
         this.player = player;
+        this.profile = profile;
         this.context = context;
     }
 
     /**
      * Create a player-specific modifier.
+     * Called on the main thread; the player's profile is captured here so modify() can run async.
      */
     public LootModifier createPlayerModifier(Player player, LootContext context) {
-        return new ValhallaModifier(plugin, valhallaPlugin, player, context);
+        return new ValhallaModifier(this, player, profileCache.getProfile(player), context);
+    }
+
+    /**
+     * ValhallaMMO profile captured when this modifier was created.
+     */
+    public ValhallaProfile getProfile() {
+        return profile;
     }
 
     @Override
@@ -63,40 +83,37 @@ public class ValhallaModifier implements LootModifier {
         }
     }
 
+    @Override
+    public void modifyItems(LootRollResult result, List<ItemStack> items) {
+        ValhallaTrinketsBridge.DefaultTrinket pending = pendingTrinket;
+        if (pending == null) {
+            return;
+        }
+        pendingTrinket = null;
+        ItemStack trinket = pending.create(plugin);
+        if (trinket != null) {
+            items.add(trinket);
+            plugin.debug(DebugLevel.LOW, "VALHALLA MODIFIER: Added default trinket to %s", result.getTableName());
+        }
+    }
+
     private void addTrinketIfAvailable(LootRollResult result) {
-        Plugin trinkets = plugin.getServer().getPluginManager().getPlugin("ValhallaTrinkets");
-        if (trinkets == null || !trinkets.isEnabled()) return;
+        if (!plugin.getValhallaHook().getTrinketsAdapter().isAvailable()) return;
 
         String table = result.getTableName();
         if (table == null) return;
 
-        // Simple per-table chance, avoids recreating loot tables locally
-        double chance;
-        switch (table.toLowerCase(Locale.ROOT)) {
-            case "trial_chambers":
-                chance = 0.15; // 15%
-                break;
-            case "end_city":
-                chance = 0.10; // 10%
-                break;
-            case "ancient_city":
-                chance = 0.08; // 8%
-                break;
-            case "pillager_outpost":
-                chance = 0.12; // 12%
-                break;
-            default:
-                chance = 0.0; // not applicable
+        TrinketRule rule = plugin.getConfigManager().getTrinketRule(table);
+        if (rule == null) {
+            rule = TrinketRule.legacy(table);
+            if (rule == null) return; // not applicable
         }
 
+        double chance = rule.chanceFor(profile);
         if (chance <= 0.0) return;
 
-        if (Math.random() < chance) {
-            ItemStack trinket = ValhallaTrinketsBridge.randomDefaultTrinket(plugin);
-            if (trinket != null) {
-                result.addItem(trinket);
-                plugin.debug(DebugLevel.LOW, "VALHALLA MODIFIER: Added default trinket to %s", table);
-            }
+        if (result.getRandom().nextDouble() < chance) {
+            pendingTrinket = ValhallaTrinketsBridge.pick(plugin, rule, result.getRandom());
         }
     }
 }
@@ -0,0 +1,47 @@
+package dev.waystone.vallhaloot.integration;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of a player's ValhallaMMO data used by loot rolls.
+ * Read once on the main thread and then shared freely with async rolls and modifiers.
+ */
+public final class ValhallaProfile {
+    public static final ValhallaProfile EMPTY = new ValhallaProfile(Map.of(), 0, 0.0, Set.of(), 0L);
+
+    private final Map<String, Integer> skillLevels; // lowercase skill name -> level
+    private final int level;
+    private final double luck;
+    private final Set<String> perks;
+    private final long loadedAtNanos;
+
+    public ValhallaProfile(Map<String, Integer> skillLevels, int level, double luck, Set<String> perks,
+                           long loadedAtNanos) {
+        this.skillLevels = Map.copyOf(skillLevels);
+        this.level = level;
+        this.luck = luck;
+        this.perks = Set.copyOf(perks);
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    /**
+     * Level of a skill by (lowercase) name, or -1 if the player has no such skill.
+     */
+    public int getSkillLevel(String skill) {
+        Integer level = skillLevels.get(skill);
+        return level != null ? level : -1;
+    }
+
+    public Map<String, Integer> getSkillLevels() { return skillLevels; }
+    /** Overall level: the highest skill level. */
+    public int getLevel() { return level; }
+    public double getLuck() { return luck; }
+    public Set<String> getPerks() { return perks; }
+    public long getLoadedAtNanos() { return loadedAtNanos; }
+
+    @Override
+    public String toString() {
+        return "ValhallaProfile{level=" + level + ", luck=" + luck + ", skills=" + skillLevels +
+               ", perks=" + perks.size() + "}";
+    }
+}
@@ -0,0 +1,210 @@
+package dev.waystone.vallhaloot.integration;
+
+import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.util.DebugLevel;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player cache of ValhallaMMO skill levels, luck and perks.
+ *
+ * THREAD SAFETY:
+ * - Profiles are only loaded on the main thread ({@link #getProfile}), since ValhallaMMO isn't thread-safe
+ * - Loaded profiles are immutable; async code reads them with {@link #getCachedProfile}
+ * - Entries are dropped on a configured refresh event, after the TTL, and on quit
+ *
+ * ValhallaMMO has no stable API, so everything is read through reflection and
+ * resolved once; if the classes aren't found, profiles are empty.
+ */
+public class ValhallaProfileCache implements Listener {
+    private static final String PROFILE_REGISTRY = "me.athlaeos.valhallammo.playerstats.profiles.ProfileRegistry";
+    private static final String STAT_MANAGER = "me.athlaeos.valhallammo.playerstats.AccumulativeStatManager";
+
+    private final ValhallaLootPlugin plugin;
+    private final Plugin valhallaPlugin;
+    private final long ttlNanos;
+    private final Map<UUID, ValhallaProfile> profiles = new ConcurrentHashMap<>();
+
+    // Resolved on first load; null if ValhallaMMO's internals don't match
+    private boolean reflectionResolved;
+    private Method registeredProfiles;
+    private Method persistentProfile;
+    private Method cachedStats;
+
+    public ValhallaProfileCache(ValhallaLootPlugin plugin, Plugin valhallaPlugin, long ttlSeconds,
+                                List<String> refreshEvents) {
+        this.plugin = plugin;
+        this.valhallaPlugin = valhallaPlugin;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (String eventClass : refreshEvents) {
+            registerRefreshEvent(eventClass);
+        }
+    }
+
+    /**
+     * Cached profile, loading it if missing or older than the TTL.
+     * MUST be called on the main thread.
+     */
+    public ValhallaProfile getProfile(Player player) {
+        ValhallaProfile profile = profiles.get(player.getUniqueId());
+        if (profile == null || System.nanoTime() - profile.getLoadedAtNanos() > ttlNanos) {
+            profile = load(player);
+            profiles.put(player.getUniqueId(), profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Cached profile without loading. Safe from any thread; may be stale or empty.
+     */
+    public ValhallaProfile getCachedProfile(UUID playerUUID) {
+        return profiles.getOrDefault(playerUUID, ValhallaProfile.EMPTY);
+    }
+
+    public void invalidate(UUID playerUUID) {
+        profiles.remove(playerUUID);
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Drop a player's profile whenever the given ValhallaMMO event fires (level-up, perk unlock, ...).
+     * The event only needs a getPlayer() method; unknown classes are skipped.
+     */
+    private void registerRefreshEvent(String className) {
+        try {
+            Class<? extends Event> eventType = Class.forName(className, true, valhallaPlugin.getClass().getClassLoader())
+                .asSubclass(Event.class);
+            Method getPlayer = PlayerEvent.class.isAssignableFrom(eventType) ? null : eventType.getMethod("getPlayer");
+            plugin.getServer().getPluginManager().registerEvent(eventType, this, EventPriority.MONITOR, (listener, event) -> {
+                if (!eventType.isInstance(event)) {
+                    return;
+                }
+                try {
+                    Object player = getPlayer == null ? ((PlayerEvent) event).getPlayer() : getPlayer.invoke(event);
+                    if (player instanceof Player p) {
+                        invalidate(p.getUniqueId());
+                    }
+                } catch (ReflectiveOperationException e) {
+                    plugin.debug(DebugLevel.LOW, "Profile refresh event %s failed: %s", className, e.getMessage());
+                }
+            }, plugin, true);
+            plugin.debug(DebugLevel.LOW, "Refreshing ValhallaMMO profiles on %s", eventType.getSimpleName());
+        } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException e) {
+            plugin.debug(DebugLevel.NORMAL, "Profile refresh event %s not available: %s", className, e.getMessage());
+        }
+    }
+
+    private void resolveReflection() {
+        reflectionResolved = true;
+        ClassLoader loader = valhallaPlugin.getClass().getClassLoader();
+        try {
+            Class<?> registry = Class.forName(PROFILE_REGISTRY, true, loader);
+            registeredProfiles = registry.getMethod("getRegisteredProfiles");
+            persistentProfile = registry.getMethod("getPersistentProfile", Player.class, Class.class);
+        } catch (ReflectiveOperationException e) {
+            plugin.getLogger().warning("ValhallaMMO skill profiles unavailable: " + e.getMessage());
+        }
+        try {
+            Class<?> stats = Class.forName(STAT_MANAGER, true, loader);
+            cachedStats = stats.getMethod("getCachedStats", String.class, org.bukkit.entity.Entity.class, boolean.class);
+        } catch (ReflectiveOperationException e) {
+            plugin.debug(DebugLevel.NORMAL, "ValhallaMMO stats unavailable: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Read a fresh profile from ValhallaMMO. Main thread only.
+     */
+    private ValhallaProfile load(Player player) {
+        if (!reflectionResolved) {
+            resolveReflection();
+        }
+        Map<String, Integer> skills = new HashMap<>();
+        Set<String> perks = new HashSet<>();
+        int level = 0;
+        double luck = 0.0;
+
+        if (registeredProfiles != null) {
+            try {
+                Object registered = registeredProfiles.invoke(null);
+                if (registered instanceof Map<?, ?> map) {
+                    for (Object key : map.keySet()) {
+                        if (!(key instanceof Class<?> profileType)) {
+                            continue;
+                        }
+                        Object profile = persistentProfile.invoke(null, player, profileType);
+                        if (profile == null) {
+                            continue;
+                        }
+                        // e.g. MiningProfile -> mining
+                        String skill = profileType.getSimpleName().replace("Profile", "").toLowerCase(Locale.ROOT);
+                        int skillLevel = readInt(profile, "getLevel");
+                        skills.put(skill, skillLevel);
+                        level = Math.max(level, skillLevel);
+                        perks.addAll(readStrings(profile, "getUnlockedPerks"));
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                plugin.debug(DebugLevel.LOW, "Failed to read ValhallaMMO profile of %s: %s", player.getName(), e.getMessage());
+            }
+        }
+
+        if (cachedStats != null) {
+            try {
+                Object value = cachedStats.invoke(null, "LOOT_LUCK", player, true);
+                if (value instanceof Number number) {
+                    luck = number.doubleValue();
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                plugin.debug(DebugLevel.LOW, "Failed to read ValhallaMMO luck of %s: %s", player.getName(), e.getMessage());
+            }
+        }
+
+        return new ValhallaProfile(skills, level, luck, perks, System.nanoTime());
+    }
+
+    private static int readInt(Object target, String method) {
+        try {
+            Object value = target.getClass().getMethod(method).invoke(target);
+            return value instanceof Number number ? number.intValue() : 0;
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+
+    private static Collection<String> readStrings(Object target, String method) {
+        try {
+            Object value = target.getClass().getMethod(method).invoke(target);
+            if (value instanceof Collection<?> collection) {
+                List<String> strings = new ArrayList<>(collection.size());
+                for (Object element : collection) {
+                    strings.add(String.valueOf(element));
+                }
+                return strings;
+            }
+        } catch (ReflectiveOperationException e) {
+            // Profile type without perks
+        }
+        return List.of();
+    }
+}
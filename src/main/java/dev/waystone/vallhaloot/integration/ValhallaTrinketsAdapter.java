@@ -0,0 +1,150 @@
+package dev.waystone.vallhaloot.integration;
+
+import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.util.DebugLevel;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+
+/**
+ * Typed access to the ValhallaTrinkets calls we need.
+ *
+ * The static methods are resolved once into MethodHandles when ValhallaTrinkets
+ * enables, and dropped again when it disables so its classes can unload.
+ * While ValhallaTrinkets is absent every call is a no-op.
+ */
+public class ValhallaTrinketsAdapter implements Listener {
+    private static final String PLUGIN_NAME = "ValhallaTrinkets";
+    private static final String MANAGER = "me.athlaeos.valhallatrinkets.TrinketsManager";
+    private static final String PROPERTIES = "me.athlaeos.valhallatrinkets.TrinketProperties";
+    private static final String TRINKET_TYPE = "me.athlaeos.valhallatrinkets.TrinketType";
+
+    private final ValhallaLootPlugin plugin;
+    // Null while ValhallaTrinkets is absent or its API didn't resolve
+    private volatile Plugin trinketsPlugin;
+    private volatile Handles handles;
+
+    public ValhallaTrinketsAdapter(ValhallaLootPlugin plugin) {
+        this.plugin = plugin;
+        Plugin trinkets = plugin.getServer().getPluginManager().getPlugin(PLUGIN_NAME);
+        if (trinkets != null && trinkets.isEnabled()) {
+            attach(trinkets);
+        }
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Whether ValhallaTrinkets is currently enabled.
+     */
+    public boolean isAvailable() {
+        return trinketsPlugin != null;
+    }
+
+    /**
+     * ValhallaTrinkets' data folder, or null when it isn't enabled.
+     */
+    public File getDataFolder() {
+        Plugin trinkets = trinketsPlugin;
+        return trinkets != null ? trinkets.getDataFolder() : null;
+    }
+
+    /**
+     * Tag an item as a trinket. Null arguments are left untouched.
+     * Does nothing if ValhallaTrinkets or its API is unavailable.
+     */
+    public void tag(ItemStack stack, Integer typeId, Integer id, Boolean unique) {
+        Handles h = handles;
+        if (h == null) {
+            return;
+        }
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null) {
+            return;
+        }
+
+        try {
+            if (typeId != null) {
+                Object types = (Object) h.getTrinketTypes.invokeExact();
+                Object type = types instanceof Map<?, ?> map ? map.get(typeId) : null;
+                if (type != null) {
+                    h.setType.invokeExact(meta, type);
+                }
+            }
+            if (id != null) {
+                h.setTrinketId.invokeExact(meta, id);
+            }
+            if (unique != null) {
+                h.setUniqueTrinket.invokeExact(meta, unique.booleanValue());
+            }
+        } catch (Throwable t) {
+            plugin.debug(DebugLevel.LOW, "Failed to tag trinket: %s", t.getMessage());
+            return;
+        }
+
+        stack.setItemMeta(meta);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            attach(event.getPlugin());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (PLUGIN_NAME.equals(event.getPlugin().getName())) {
+            trinketsPlugin = null;
+            handles = null;
+            ValhallaTrinketsBridge.clearCache();
+            plugin.debug(DebugLevel.LOW, "ValhallaTrinkets disabled, trinket integration off");
+        }
+    }
+
+    private void attach(Plugin trinkets) {
+        handles = resolve(trinkets.getClass().getClassLoader());
+        trinketsPlugin = trinkets;
+        ValhallaTrinketsBridge.clearCache();
+        plugin.debug(DebugLevel.LOW, "ValhallaTrinkets enabled, trinket tagging %s",
+            handles != null ? "available" : "unavailable");
+    }
+
+    private Handles resolve(ClassLoader loader) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> manager = Class.forName(MANAGER, true, loader);
+            Class<?> properties = Class.forName(PROPERTIES, true, loader);
+            Class<?> trinketType = Class.forName(TRINKET_TYPE, true, loader);
+
+            // Return types are dropped and ValhallaTrinkets types erased to Object,
+            // so call sites don't link against its classes
+            MethodHandle getTrinketTypes = lookup.unreflect(manager.getMethod("getTrinketTypes"))
+                .asType(MethodType.methodType(Object.class));
+            MethodHandle setType = lookup.unreflect(manager.getMethod("setType", ItemMeta.class, trinketType))
+                .asType(MethodType.methodType(void.class, ItemMeta.class, Object.class));
+            MethodHandle setTrinketId = lookup.unreflect(properties.getMethod("setTrinketID", ItemMeta.class, Integer.class))
+                .asType(MethodType.methodType(void.class, ItemMeta.class, Integer.class));
+            MethodHandle setUniqueTrinket = lookup.unreflect(properties.getMethod("setUniqueTrinket", ItemMeta.class, boolean.class))
+                .asType(MethodType.methodType(void.class, ItemMeta.class, boolean.class));
+            return new Handles(getTrinketTypes, setType, setTrinketId, setUniqueTrinket);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            plugin.getLogger().warning("ValhallaTrinkets API not recognised, trinkets won't be tagged: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private record Handles(MethodHandle getTrinketTypes, MethodHandle setType,
+                           MethodHandle setTrinketId, MethodHandle setUniqueTrinket) {
+    }
+}
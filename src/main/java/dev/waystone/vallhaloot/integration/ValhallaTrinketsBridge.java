@@ -3,70 +3,196 @@ package dev.waystone.vallhaloot.integration;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.loot.AliasSampler;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.io.FileReader;
-import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
 /**
  * Soft-integration with ValhallaTrinkets: loads default trinkets from its JSON
  * and constructs ItemStacks via base64 ItemStack serialization. If available,
- * tags items as proper trinkets using ValhallaTrinkets APIs via reflection.
+ * tags items as proper trinkets through {@link ValhallaTrinketsAdapter}.
+ *
+ * The JSON is parsed once and kept until its modification time changes. Each
+ * trinket's ItemStack is deserialized and tagged once, then handed out as clones.
  */
 public class ValhallaTrinketsBridge {
     private static final Gson GSON = new Gson();
     private static final Type LIST_TYPE = new TypeToken<List<Map<String, Object>>>(){}.getType();
+    // How often the file's mtime is checked for changes
+    private static final long RECHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final Object NO_SAMPLER = new Object();
+
+    private static volatile Catalog catalog;
 
     /**
-     * Returns a random default trinket ItemStack, or null if unavailable.
+     * Picks a default trinket using a table's trinket weights, or null if unavailable
+     * or no trinket has a positive weight. Only reads files: safe off the main thread.
+     * Build the item with {@link DefaultTrinket#create}.
      */
-    public static ItemStack randomDefaultTrinket(ValhallaLootPlugin plugin){
-        try {
-            Plugin trinkets = plugin.getServer().getPluginManager().getPlugin("ValhallaTrinkets");
-            if (trinkets == null) return null;
-            File data = trinkets.getDataFolder();
-            File defaults = new File(data, "default_trinkets.json");
-            if (!defaults.exists()) return null; // advise running /valhalla setuptrinkets
-
-            List<Map<String, Object>> defs;
-            try (FileReader reader = new FileReader(defaults, StandardCharsets.UTF_8)){
-                defs = GSON.fromJson(reader, LIST_TYPE);
+    public static DefaultTrinket pick(ValhallaLootPlugin plugin, TrinketRule rule, RandomGenerator random){
+        Catalog current = currentCatalog(plugin);
+        if (current == null) return null;
+        AliasSampler sampler = current.sampler(rule);
+        return sampler != null ? current.trinkets.get(sampler.sample(random)) : null;
+    }
+
+    /**
+     * Default trinkets from the JSON, reloaded only when the file changes. Null if unavailable.
+     */
+    private static Catalog currentCatalog(ValhallaLootPlugin plugin){
+        Catalog current = catalog;
+        long now = System.nanoTime();
+        if (current != null && now - current.checkedAt < RECHECK_INTERVAL_NANOS) {
+            return current;
+        }
+
+        File dataFolder = plugin.getValhallaHook().getTrinketsAdapter().getDataFolder();
+        if (dataFolder == null) return null;
+        File defaults = new File(dataFolder, "default_trinkets.json");
+        if (!defaults.exists()) return null; // advise running /valhalla setuptrinkets
+
+        long lastModified = defaults.lastModified();
+        if (current != null && current.file.equals(defaults) && current.lastModified == lastModified) {
+            current.checkedAt = now;
+            return current;
+        }
+
+        // Racing threads may both parse a changed file; the last one wins
+        Catalog loaded = new Catalog(defaults, lastModified, now, load(plugin, defaults));
+        catalog = loaded;
+        return loaded;
+    }
+
+    /**
+     * Forget the parsed JSON and built prototypes.
+     */
+    public static void clearCache(){
+        catalog = null;
+    }
+
+    private static List<DefaultTrinket> load(ValhallaLootPlugin plugin, File defaults){
+        List<Map<String, Object>> defs;
+        try (FileReader reader = new FileReader(defaults, StandardCharsets.UTF_8)){
+            defs = GSON.fromJson(reader, LIST_TYPE);
+        } catch (Exception e){
+            plugin.getLogger().warning("Failed to read default trinkets: " + e.getMessage());
+            return List.of();
+        }
+        if (defs == null || defs.isEmpty()) return List.of();
+
+        List<DefaultTrinket> trinkets = new ArrayList<>(defs.size());
+        for (Map<String, Object> def : defs){
+            if (def != null && def.get("item") instanceof String) {
+                Map<String, Object> modifier = extractTrinketModifier(def);
+                trinkets.add(new DefaultTrinket(def,
+                    modifier != null ? asInteger(modifier.get("id")) : null,
+                    modifier != null ? asInteger(modifier.get("trinket")) : null));
             }
-            if (defs == null || defs.isEmpty()) return null;
+        }
+        return List.copyOf(trinkets);
+    }
 
-            Map<String, Object> def = defs.get(new Random().nextInt(defs.size()));
+    /**
+     * Builds the ItemStack for a default trinket definition, or null if it can't be deserialized.
+     */
+    public static ItemStack trinketFromDefinition(ValhallaLootPlugin plugin, Map<String, Object> def){
+        try {
             String itemBase64 = (String) def.get("item");
             ItemStack stack = ItemSerialization.deserializeItemStack(itemBase64);
 
             if (stack == null) return null;
 
-            // Attempt to apply trinket properties via reflection if ValhallaTrinkets APIs are present
+            // Apply trinket properties if the ValhallaTrinkets API is present
             try {
                 Map<String, Object> modifiers = extractTrinketModifier(def);
                 if (modifiers != null) {
-                    Integer typeId = (Integer) modifiers.get("trinket");
-                    Integer id = (Integer) modifiers.get("id");
+                    Integer typeId = asInteger(modifiers.get("trinket"));
+                    Integer id = asInteger(modifiers.get("id"));
                     Boolean unique = (Boolean) modifiers.get("unique");
 
                     if (typeId != null || id != null || unique != null){
-                        tagAsTrinket(stack, typeId, id, unique);
+                        plugin.getValhallaHook().getTrinketsAdapter().tag(stack, typeId, id, unique);
                     }
                 }
             } catch (Exception ignored){ }
 
             return stack;
         } catch (Exception e){
-            plugin.getLogger().warning("Failed to get random default trinket: " + e.getMessage());
+            plugin.getLogger().warning("Failed to build default trinket: " + e.getMessage());
             return null;
         }
     }
 
+    // Gson reads JSON numbers into a Map<String, Object> as Double
+    private static Integer asInteger(Object value){
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    /**
+     * One default trinket. The tagged ItemStack is built on first use and cloned afterwards.
+     */
+    public static final class DefaultTrinket {
+        private final Map<String, Object> definition;
+        private final Integer trinketId;
+        private final Integer trinketType;
+        private ItemStack prototype; // main thread only
+        private boolean failed;
+
+        private DefaultTrinket(Map<String, Object> definition, Integer trinketId, Integer trinketType){
+            this.definition = definition;
+            this.trinketId = trinketId;
+            this.trinketType = trinketType;
+        }
+
+        public Map<String, Object> getDefinition(){ return definition; }
+        public Integer getTrinketId(){ return trinketId; }
+        public Integer getTrinketType(){ return trinketType; }
+
+        /**
+         * A fresh copy of the trinket, or null if it can't be built.
+         * MUST be called on the main thread.
+         */
+        public ItemStack create(ValhallaLootPlugin plugin){
+            if (prototype == null && !failed) {
+                prototype = trinketFromDefinition(plugin, definition);
+                failed = prototype == null;
+            }
+            return prototype != null ? prototype.clone() : null;
+        }
+    }
+
+    private static final class Catalog {
+        final File file;
+        final long lastModified;
+        final List<DefaultTrinket> trinkets;
+        // Compiled per rule on first use; NO_SAMPLER when a rule weights every trinket at zero
+        final Map<TrinketRule, Object> samplers = new ConcurrentHashMap<>();
+        volatile long checkedAt;
+
+        Catalog(File file, long lastModified, long checkedAt, List<DefaultTrinket> trinkets){
+            this.file = file;
+            this.lastModified = lastModified;
+            this.checkedAt = checkedAt;
+            this.trinkets = trinkets;
+        }
+
+        AliasSampler sampler(TrinketRule rule){
+            Object sampler = samplers.computeIfAbsent(rule, r -> {
+                AliasSampler compiled = r.compile(trinkets);
+                return compiled != null ? compiled : NO_SAMPLER;
+            });
+            return sampler instanceof AliasSampler alias ? alias : null;
+        }
+    }
+
     /**
      * Extracts the TrinketTypeSetModifier block from the default trinket entry
      */
@@ -86,37 +212,4 @@ public class ValhallaTrinketsBridge {
         }
         return null;
     }
-
-    /**
-     * Tags the ItemStack as a trinket using ValhallaTrinkets APIs via reflection
-     */
-    private static void tagAsTrinket(ItemStack stack, Integer typeId, Integer id, Boolean unique) throws Exception {
-        ItemMeta meta = stack.getItemMeta();
-        if (meta == null) return;
-
-        Class<?> manager = Class.forName("me.athlaeos.valhallatrinkets.TrinketsManager");
-        Class<?> props = Class.forName("me.athlaeos.valhallatrinkets.TrinketProperties");
-
-        // Fetch TrinketType for given id
-        Object typesMap = manager.getMethod("getTrinketTypes").invoke(null);
-        if (typeId != null && typesMap instanceof Map){
-            Object type = ((Map<?, ?>) typesMap).get(typeId);
-            if (type != null){
-                Method setType = manager.getMethod("setType", ItemMeta.class, Class.forName("me.athlaeos.valhallatrinkets.TrinketType"));
-                setType.invoke(null, meta, type);
-            }
-        }
-
-        if (id != null){
-            Method setId = props.getMethod("setTrinketID", ItemMeta.class, Integer.class);
-            setId.invoke(null, meta, id);
-        }
-
-        if (unique != null){
-            Method setUnique = props.getMethod("setUniqueTrinket", ItemMeta.class, boolean.class);
-            setUnique.invoke(null, meta, unique);
-        }
-
-        stack.setItemMeta(meta);
-    }
 }
@@ -1,18 +1,24 @@
 package dev.waystone.vallhaloot.listeners;
 
 import dev.waystone.vallhaloot.ValhallaLootPlugin;
+import dev.waystone.vallhaloot.bukkit.LootModifierPipeline;
+import dev.waystone.vallhaloot.bukkit.StructureTableResolver;
 import dev.waystone.vallhaloot.loot.*;
+import dev.waystone.vallhaloot.storage.PlayerLootSeed;
 import dev.waystone.vallhaloot.util.RateLimiter;
 import dev.waystone.vallhaloot.util.InventorySerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.inventory.BlockInventoryHolder;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.Vector;
 import org.bukkit.block.TileState;
 import org.bukkit.persistence.PersistentDataContainer;
@@ -22,6 +28,7 @@ import org.bukkit.entity.Player;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
 /**
  * Listens for container open events and triggers loot generation.
@@ -36,8 +43,12 @@ public class ContainerOpenListener implements Listener {
     private final ValhallaLootPlugin plugin;
     private final ConcurrentHashMap<String, CompletableFuture<?>> inFlightLootGeneration;
     private final RateLimiter debugLimiter = new RateLimiter(500); // Max 1 debug msg per 500ms
-    // BUGFIX #1: Structure detection caching to avoid repeated async calls
+    // Structures from the world's generation data; the block scans below are the fallback
+    private final StructureTableResolver structureResolver;
+    // BUGFIX #1: Caches block-scan results (fallback only), keyed by world and position
     private final ConcurrentHashMap<String, String> structureCache = new ConcurrentHashMap<>();
+    // Recompute mode: contents placed for each open player+container, compared on close
+    private final ConcurrentHashMap<String, ItemStack[]> recomputedContents = new ConcurrentHashMap<>();
 
     // Container types that should have loot
     private static final Set<Material> LOOT_CONTAINERS = Set.of(
@@ -66,6 +77,7 @@ public class ContainerOpenListener implements Listener {
     public ContainerOpenListener(ValhallaLootPlugin plugin) {
         this.plugin = plugin;
         this.inFlightLootGeneration = new ConcurrentHashMap<>();
+        this.structureResolver = new StructureTableResolver(name -> plugin.getConfigManager().getLootTable(name) != null);
     }
 
     @EventHandler
@@ -104,10 +116,7 @@ public class ContainerOpenListener implements Listener {
         }
 
         Player player = (Player) event.getPlayer();
-
-        // Snapshot all context data synchronously before going async
-        LootContext context = snapshotContext(player, block);
-        String containerKey = context.getContainerKey();
+        String containerKey = LootContext.containerKey(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
 
         debugLimiter.execute(() -> {
             plugin.getLogger().info("[CONTAINER OPEN] " + player.getName() + " opened " + 
@@ -129,6 +138,10 @@ public class ContainerOpenListener implements Listener {
         if (!player.hasPermission("valloot.table." + tableName)) {
             return;
         }
+
+        // Snapshot all context data synchronously before going async; the table decides
+        // which player data is fetched
+        LootContext context = snapshotContext(player, block, table);
         
         // CRITICAL FIX: Check if this player already has loot generated for this container
         boolean perPlayerMode = plugin.getConfigManager().isPerPlayerLootEnabled();
@@ -162,6 +175,33 @@ public class ContainerOpenListener implements Listener {
             return;
         }
 
+        // Recompute mode: regenerate this player's earlier roll from its seed instead of a stored snapshot
+        long takenSlots = 0L;
+        if (perPlayerMode && plugin.getConfigManager().isRecomputePlayerLootEnabled()) {
+            PlayerLootSeed seed = plugin.getStorageManager().getPlayerLootSeed(containerKey, player.getUniqueId());
+            if (seed != null) {
+                LootTable seededTable = plugin.getConfigManager().getLootTable(seed.getTableName());
+                if (seededTable != null && seededTable.getRevision() == seed.getRevision()) {
+                    if (isGenerationInFlight(containerKey, player.getUniqueId())) {
+                        return;
+                    }
+                    LootContext seededContext = seededTable == table ? context : snapshotContext(player, block, seededTable);
+                    LootModifierPipeline.Run seededModifiers = plugin.getModifierPipeline().prepare(player, seededContext);
+                    if (isSeedOnly(seededTable, seededModifiers)) {
+                        generateLootAsync(containerKey, seededTable, seededContext, block, seededModifiers,
+                            seed, seed.getTakenMask());
+                        return;
+                    }
+                }
+                // The table changed or was removed, or modifiers now run, so the old contents can't be
+                // reproduced. The player rolls again like any other opener: the first-open gate still
+                // applies, and slots they already emptied stay empty in the new roll
+                takenSlots = seed.getTakenMask();
+                plugin.debug(dev.waystone.vallhaloot.util.DebugLevel.LOW,
+                    "Stale loot seed %s for %s at %s, rerolling", seed, player.getName(), containerKey);
+            }
+        }
+
         // Check first-open gate
         if (table.isFirstOpenOnly()) {
             boolean opened = perPlayerMode
@@ -173,22 +213,110 @@ public class ContainerOpenListener implements Listener {
         }
 
         // BUGFIX #2: Handle per-player simultaneous opens properly
-        CompletableFuture<?> existing = inFlightLootGeneration.get(containerKey + ":" + player.getUniqueId());
-        if (existing != null && !existing.isDone()) {
+        if (isGenerationInFlight(containerKey, player.getUniqueId())) {
             // Loot generation is already in progress for this player+container
             return;
         }
 
         // Start async loot generation for this player
-        generateLootAsync(containerKey, table, context, block);
+        generateLootAsync(containerKey, table, context, block,
+            plugin.getModifierPipeline().prepare(player, context), null, takenSlots);
+    }
+
+    private boolean isGenerationInFlight(String containerKey, UUID playerUUID) {
+        CompletableFuture<?> existing = inFlightLootGeneration.get(containerKey + ":" + playerUUID);
+        return existing != null && !existing.isDone();
+    }
+
+    /**
+     * Compare the contents on close with what recompute mode placed on open.
+     * Emptied slots are recorded in the seed's bitmap; any other change (partial take,
+     * items added or moved) falls back to a full snapshot for this player.
+     */
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (recomputedContents.isEmpty()) {
+            return;
+        }
+        if (!(event.getInventory().getHolder() instanceof BlockInventoryHolder holder)
+                || !(event.getPlayer() instanceof Player player)) {
+            return;
+        }
+
+        Block block = holder.getBlock();
+        String containerKey = LootContext.containerKey(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+        ItemStack[] expected = recomputedContents.remove(containerKey + ":" + player.getUniqueId());
+        if (expected == null) {
+            return;
+        }
+
+        PlayerLootSeed seed = plugin.getStorageManager().getPlayerLootSeed(containerKey, player.getUniqueId());
+        if (seed == null) {
+            return;
+        }
+
+        ItemStack[] actual = event.getInventory().getContents();
+        boolean modified = actual.length != expected.length;
+        long taken = seed.getTakenMask();
+        for (int i = 0; !modified && i < actual.length; i++) {
+            ItemStack now = actual[i];
+            ItemStack was = expected[i];
+            boolean nowEmpty = now == null || now.getType().isAir();
+            if (was == null) {
+                modified = !nowEmpty;
+            } else if (nowEmpty) {
+                if (i >= PlayerLootSeed.MAX_TRACKED_SLOTS) {
+                    modified = true;
+                } else {
+                    taken |= 1L << i;
+                }
+            } else {
+                modified = !now.isSimilar(was) || now.getAmount() != was.getAmount();
+            }
+        }
+
+        if (modified) {
+            try {
+                plugin.getStorageManager().savePlayerLoot(containerKey, player.getUniqueId(),
+                    InventorySerializer.toBase64(actual));
+                plugin.getStorageManager().removePlayerLootSeed(containerKey, player.getUniqueId());
+                plugin.debug(dev.waystone.vallhaloot.util.DebugLevel.LOW,
+                    "Loot at %s modified by %s, switched to snapshot storage", containerKey, player.getName());
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to snapshot modified player loot: " + e.getMessage());
+            }
+        } else if (taken != seed.getTakenMask()) {
+            plugin.getStorageManager().savePlayerLootSeed(containerKey, player.getUniqueId(), seed.withTakenMask(taken));
+        }
     }
 
     /**
      * Generate loot asynchronously and apply it to the container.
      * This is the core pattern: compute async, apply sync.
      * Uses per-player tracking to ensure each player gets their own unique loot.
+     * 
+     * @param modifiers this roll's modifiers, prepared on the main thread; only their ROLL stage runs async
+     * @param seed recompute-mode record when regenerating an earlier roll, null for a new roll
+     * @param takenSlots slots the player already emptied, which stay empty
      */
-    private void generateLootAsync(String containerKey, LootTable table, LootContext context, Block block) {
+    private void generateLootAsync(String containerKey, LootTable table, LootContext context, Block block,
+                                   LootModifierPipeline.Run modifiers, PlayerLootSeed seed, long takenSlots) {
+        // Recompute mode seeds the roll so it can be regenerated on reopen; rolls that
+        // also depend on the context or on modifiers are stored as snapshots instead
+        boolean recompute = plugin.getConfigManager().isRecomputePlayerLootEnabled()
+            && isSeedOnly(table, modifiers);
+
+        // A buffered roll skips the async round trip: apply it in this tick
+        if (seed == null && plugin.getConfigManager().isPrerollEnabled()) {
+            LootRollResult prerolled = plugin.getConfigManager().getPrerollBuffer().poll(table);
+            if (prerolled != null) {
+                LootRollResult result = prerolled.withContext(context);
+                modifiers.rollStage(result);
+                applyLootToContainer(block, result, modifiers, containerKey, table, false, null, takenSlots);
+                return;
+            }
+        }
+
         // Use per-player key for tracking in-flight generation
         String playerContainerKey = containerKey + ":" + context.getPlayerUUID();
         CompletableFuture<LootRollResult> future = new CompletableFuture<>();
@@ -199,19 +327,16 @@ public class ContainerOpenListener implements Listener {
                 long start = System.currentTimeMillis();
                 
                 // Roll loot (pure logic, safe for async)
-                LootRollResult result = LootEngine.roll(table, context);
-                
-                // Apply ValhallaMMO modifiers if available
-                Player player = Bukkit.getPlayer(context.getPlayerUUID());
-                if (player != null) {
-                    LootModifier modifier = plugin.getValhallaHook().getModifier(player, context);
-                    LootEngine.applyModifier(result, modifier);
-                }
+                RandomGenerator random = recompute
+                    ? new SplittableRandom(LootRandomProvider.seedFor(table, context))
+                    : LootEngine.getRandomProvider().forRoll(table, context);
+                LootRollResult result = LootEngine.roll(table, context, random);
+                modifiers.rollStage(result);
 
                 long elapsed = System.currentTimeMillis() - start;
                 debugLimiter.execute(() -> {
-                    plugin.getLogger().info("[LOOT ROLL] Generated " + result.getItems().size() + 
-                        " items in " + elapsed + "ms for " + table.getName());
+                    plugin.getLogger().info("[LOOT ROLL] Generated " + result.getDrops().size() + 
+                        " drops in " + elapsed + "ms for " + table.getName());
                 });
 
                 future.complete(result);
@@ -225,19 +350,30 @@ public class ContainerOpenListener implements Listener {
         // Apply loot to container on main thread when ready
         // Don't block waiting for the future
         future.thenAcceptAsync(result -> {
-            applyLootToContainer(block, result, context.getContainerKey());
+            applyLootToContainer(block, result, modifiers, context.getContainerKey(), table, recompute, seed, takenSlots);
         }, r -> plugin.getSchedulerHelper().runSync(r));
     }
 
+    /**
+     * Whether a roll of the table is fully determined by its seed, so recompute mode can
+     * rebuild it later. Conditions (time of day, skills, permissions, level, ...) read the
+     * context at open time and modifiers read player state, none of which is stored.
+     */
+    private static boolean isSeedOnly(LootTable table, LootModifierPipeline.Run modifiers) {
+        return table.isContextFree() && modifiers.isEmpty();
+    }
+
     /**
      * Apply loot items to the container inventory.
-     * MUST be called on main thread (Bukkit API access).
+     * MUST be called on main thread (Bukkit API access): drops are turned into ItemStacks here.
      * 
      * CRITICAL: This completely transforms the container's inventory contents
      * for each player independently by storing and restoring per-player loot.
      * This is the proper "client-side loot" approach like JustLootIt.
      */
-    private void applyLootToContainer(Block block, LootRollResult result, String containerKey) {
+    private void applyLootToContainer(Block block, LootRollResult result, LootModifierPipeline.Run modifiers,
+                                      String containerKey, LootTable table, boolean recompute,
+                                      PlayerLootSeed seed, long takenSlots) {
         // BUGFIX #5: Check if chunk is still loaded before accessing block state
         if (!block.getChunk().isLoaded()) {
             plugin.debug(dev.waystone.vallhaloot.util.DebugLevel.HIGH,
@@ -252,26 +388,47 @@ public class ContainerOpenListener implements Listener {
             Player viewer = Bukkit.getPlayer(result.getContext().getPlayerUUID());
             
             if (viewer != null) {
+                modifiers.applyStage(result);
+                List<ItemStack> items = plugin.getLootItemFactory().materialize(result);
+                modifiers.modifyItems(result, items);
+
                 // CRITICAL: Clear and populate the actual container with this player's loot
                 realInventory.clear();
                 
+                ItemStack[] placed = new ItemStack[realInventory.getSize()];
                 int slot = 0;
-                for (org.bukkit.inventory.ItemStack item : result.getItems()) {
+                for (org.bukkit.inventory.ItemStack item : items) {
                     if (slot >= realInventory.getSize()) break;
-                    realInventory.setItem(slot++, item);
+                    // Slots this player already emptied stay empty, also when an old seed is rerolled
+                    if (!PlayerLootSeed.isTaken(takenSlots, slot)) {
+                        realInventory.setItem(slot, item);
+                        placed[slot] = item;
+                    }
+                    slot++;
                 }
                 
                 // CRITICAL: Save this player's loot so they see it consistently on future opens
                 boolean perPlayerMode = plugin.getConfigManager().isPerPlayerLootEnabled();
-                if (perPlayerMode) {
+                if (perPlayerMode && recompute) {
+                    // Only a seed record is stored; contents are checked again on close
+                    if (seed == null) {
+                        plugin.getStorageManager().savePlayerLootSeed(containerKey, viewer.getUniqueId(),
+                            new PlayerLootSeed(table.getName(), result.getTableRevision(), takenSlots));
+                    }
+                    recomputedContents.put(containerKey + ":" + viewer.getUniqueId(), placed);
+                } else if (perPlayerMode) {
                     try {
                         org.bukkit.inventory.ItemStack[] contents = realInventory.getContents();
                         String serialized = InventorySerializer.toBase64(contents);
                         plugin.getStorageManager().savePlayerLoot(containerKey, viewer.getUniqueId(), serialized);
+                        if (plugin.getConfigManager().isRecomputePlayerLootEnabled()) {
+                            // Recompute mode fell back to a snapshot; any earlier seed record is replaced
+                            plugin.getStorageManager().removePlayerLootSeed(containerKey, viewer.getUniqueId());
+                        }
                         
                         debugLimiter.execute(() -> {
                             plugin.getLogger().info("[LOOT SAVED] Stored per-player loot for " + viewer.getName() + 
-                                " at " + containerKey + " (" + result.getItems().size() + " items)");
+                                " at " + containerKey + " (" + items.size() + " items)");
                         });
                     } catch (Exception e) {
                         plugin.getLogger().warning("Failed to serialize and save player loot: " + e.getMessage());
@@ -280,15 +437,17 @@ public class ContainerOpenListener implements Listener {
                 
                 debugLimiter.execute(() -> {
                     plugin.getLogger().info("[LOOT APPLIED] Container at " + block.getLocation() + 
-                        " transformed with " + result.getItems().size() + " items for " + viewer.getName());
+                        " transformed with " + items.size() + " items for " + viewer.getName());
                 });
                 
                 // Mark as opened (per-player tracking)
-                Vector blockVec = block.getLocation().toVector();
-                plugin.getStorageManager().markAsOpenedByPlayer(containerKey,
-                    block.getWorld().getUID().toString(),
-                    blockVec.getBlockX(), blockVec.getBlockY(), blockVec.getBlockZ(),
-                    result.getContext().getPlayerUUID());
+                if (seed == null) {
+                    Vector blockVec = block.getLocation().toVector();
+                    plugin.getStorageManager().markAsOpenedByPlayer(containerKey,
+                        block.getWorld().getUID().toString(),
+                        blockVec.getBlockX(), blockVec.getBlockY(), blockVec.getBlockZ(),
+                        result.getContext().getPlayerUUID());
+                }
             }
         }
 
@@ -300,12 +459,17 @@ public class ContainerOpenListener implements Listener {
     /**
      * Determine which loot table should be used for this block.
      * Configurable by block type, biome, world, etc.
-     * 
-     * CRITICAL FIX: Run slow detection synchronously on cache miss to ensure
-     * correct loot table on first open (not just a race-condition fallback to "common").
-     * This only happens once per unique container location.
+     *
+     * Worlds that generate structures are resolved from their structure data: a
+     * container inside a structure gets its table, any other one the block type table.
+     * Other worlds (custom generators) fall back to the biome and block-scan heuristics.
      */
     private String determineTableName(Block block) {
+        if (structureResolver.canResolve(block)) {
+            String structureTable = structureResolver.resolve(block);
+            return structureTable != null ? structureTable : tableForBlockType(block);
+        }
+
         // Try fast structure detection first (minimal main thread impact)
         String structureTable = detectStructureTableFast(block);
         if (structureTable != null) {
@@ -313,7 +477,7 @@ public class ContainerOpenListener implements Listener {
         }
         
         // Check cache for previous slow detection result
-        String blockKey = block.getX() + ":" + block.getY() + ":" + block.getZ();
+        String blockKey = block.getWorld().getName() + ":" + block.getX() + ":" + block.getY() + ":" + block.getZ();
         if (structureCache.containsKey(blockKey)) {
             return structureCache.get(blockKey);
         }
@@ -328,6 +492,10 @@ public class ContainerOpenListener implements Listener {
         }
         
         // Fall back to block type mapping only if no structure detected
+        return tableForBlockType(block);
+    }
+
+    private String tableForBlockType(Block block) {
         return switch (block.getType()) {
             case BARREL -> "common";
             case CHEST -> "common";
@@ -366,9 +534,9 @@ public class ContainerOpenListener implements Listener {
     }
 
     /**
-     * Slow/detailed structure detection (async only).
-     * Uses extensive block scanning within a 15-block radius.
-     * MUST only be called from async context.
+     * Slow/detailed structure detection, for worlds without structure data.
+     * Uses extensive block scanning within a 15-block radius; runs on the main thread
+     * once per container location.
      */
     private String detectStructureTableSlow(Block block) {
         // Variables kept for future use
@@ -651,34 +819,21 @@ public class ContainerOpenListener implements Listener {
     /**
      * Snapshot all context data synchronously.
      * This must happen on the main thread to safely access Bukkit API.
+     * Builds the context directly, without intermediate maps or vectors, and only
+     * fetches the player data the table's conditions read.
      */
-    private LootContext snapshotContext(Player player, Block block) {
-        Vector location = block.getLocation().toVector();
-        String worldName = block.getWorld().getName();
-        UUID worldUUID = block.getWorld().getUID();
-        String biome = block.getBiome().toString();
-        long worldTime = block.getWorld().getTime();
+    private LootContext snapshotContext(Player player, Block block, LootTable table) {
+        World world = block.getWorld();
+        long worldTime = world.getTime();
         int moonPhase = 0; // Calculate from world time
-        boolean isNight = worldTime >= 13000 || worldTime <= 23000;
-
-        Map<String, Object> metadata = plugin.getValhallaHook().enrichContext(player, null);
-        if (metadata == null) {
-            metadata = new HashMap<>();
-        }
-
-        return new LootContext(
-            player.getUniqueId(),
-            player.getName(),
-            location,
-            worldName,
-            worldUUID,
-            block.getType().toString(),
-            biome,
-            worldTime,
-            moonPhase,
-            isNight,
-            0, // PlayerLevel would come from ValhallaMMO
-            metadata
-        );
+
+        LootContext.Builder context = LootContext.builder(player.getUniqueId(), player.getName())
+            .world(world.getName(), world.getUID(), world.getSeed())
+            .position(block.getX(), block.getY(), block.getZ())
+            .container(block.getType().name())
+            .biome(block.getBiome().name())
+            .time(worldTime, moonPhase, worldTime >= 13000 && worldTime <= 23000);
+        plugin.getValhallaHook().enrichContext(player, table.getFacets(), context);
+        return context.build();
     }
 }
@@ -0,0 +1,46 @@
+package dev.waystone.vallhaloot.storage;
+
+/**
+ * Compact per-player loot record for recompute mode.
+ * Instead of a serialized inventory, stores which table revision was rolled and
+ * which slots the player has emptied; the contents are regenerated from the seeded roll.
+ */
+public final class PlayerLootSeed {
+    // Slots are tracked in a long, which covers a double chest (54 slots)
+    public static final int MAX_TRACKED_SLOTS = 64;
+
+    private final String tableName;
+    private final long revision;
+    private final long takenMask;
+
+    public PlayerLootSeed(String tableName, long revision, long takenMask) {
+        this.tableName = tableName;
+        this.revision = revision;
+        this.takenMask = takenMask;
+    }
+
+    public String getTableName() { return tableName; }
+    public long getRevision() { return revision; }
+    public long getTakenMask() { return takenMask; }
+
+    public boolean isTaken(int slot) {
+        return isTaken(takenMask, slot);
+    }
+
+    /**
+     * Whether the slot is set in a taken-slot bitmap.
+     */
+    public static boolean isTaken(long takenMask, int slot) {
+        return slot < MAX_TRACKED_SLOTS && (takenMask & (1L << slot)) != 0;
+    }
+
+    public PlayerLootSeed withTakenMask(long mask) {
+        return new PlayerLootSeed(tableName, revision, mask);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerLootSeed{" + tableName + "@" + Long.toHexString(revision) +
+               ", taken=" + Long.toBinaryString(takenMask) + "}";
+    }
+}
@@ -20,6 +20,9 @@ public class StorageManager {
     private final java.util.Map<String, ConcurrentHashMap<UUID, Long>> playerOpenMarkers;
     // CRITICAL: Cache for player loot to avoid main thread database I/O
     private final java.util.Map<String, ConcurrentHashMap<UUID, String>> playerLootCache;
+    // Recompute mode records are tiny, so all of them are kept in memory (loaded at startup)
+    private final ConcurrentHashMap<String, ConcurrentHashMap<UUID, PlayerLootSeed>> playerLootSeeds =
+        new ConcurrentHashMap<>();
 
     public StorageManager(ValhallaLootPlugin plugin) {
         this.plugin = plugin;
@@ -95,6 +98,16 @@ public class StorageManager {
                         "loot_data TEXT NOT NULL," +
                         "generated_at BIGINT NOT NULL," +
                         "PRIMARY KEY(container_key, player_uuid))");
+
+                // Recompute mode: table revision + emptied-slot bitmap instead of a serialized inventory
+                stmt.execute("CREATE TABLE IF NOT EXISTS player_loot_seeds (" +
+                        "container_key TEXT NOT NULL," +
+                        "player_uuid TEXT NOT NULL," +
+                        "table_name TEXT NOT NULL," +
+                        "revision BIGINT NOT NULL," +
+                        "taken_mask BIGINT NOT NULL," +
+                        "opened_at BIGINT NOT NULL," +
+                        "PRIMARY KEY(container_key, player_uuid))");
             }
 
             plugin.getLogger().info("Database initialized successfully");
@@ -131,6 +144,19 @@ public class StorageManager {
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to load per-player first-open markers: " + e.getMessage());
         }
+
+        try (Statement stmt = dbConnection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT container_key, player_uuid, table_name, revision, taken_mask FROM player_loot_seeds")) {
+            while (rs.next()) {
+                String key = rs.getString("container_key");
+                UUID player = UUID.fromString(rs.getString("player_uuid"));
+                PlayerLootSeed seed = new PlayerLootSeed(rs.getString("table_name"),
+                    rs.getLong("revision"), rs.getLong("taken_mask"));
+                playerLootSeeds.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(player, seed);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load per-player loot seeds: " + e.getMessage());
+        }
     }
 
     /**
@@ -456,6 +482,61 @@ public class StorageManager {
         return null;
     }
 
+    /**
+     * Save the recompute-mode record for a player's loot in a container.
+     */
+    public void savePlayerLootSeed(String containerKey, UUID playerUUID, PlayerLootSeed seed) {
+        playerLootSeeds.computeIfAbsent(containerKey, k -> new ConcurrentHashMap<>()).put(playerUUID, seed);
+
+        if (dbConnection == null) return;
+        plugin.getSchedulerHelper().runAsync(() -> {
+            try (PreparedStatement pstmt = dbConnection.prepareStatement(
+                    "INSERT OR REPLACE INTO player_loot_seeds (container_key, player_uuid, table_name, revision, taken_mask, opened_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)")) {
+                pstmt.setString(1, containerKey);
+                pstmt.setString(2, playerUUID.toString());
+                pstmt.setString(3, seed.getTableName());
+                pstmt.setLong(4, seed.getRevision());
+                pstmt.setLong(5, seed.getTakenMask());
+                pstmt.setLong(6, System.currentTimeMillis());
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to save player loot seed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Get the recompute-mode record for a player's loot in a container, or null if none.
+     * Served from memory; safe to call on the main thread.
+     */
+    public PlayerLootSeed getPlayerLootSeed(String containerKey, UUID playerUUID) {
+        ConcurrentHashMap<UUID, PlayerLootSeed> map = playerLootSeeds.get(containerKey);
+        return map != null ? map.get(playerUUID) : null;
+    }
+
+    /**
+     * Drop a recompute-mode record, e.g. after falling back to a full snapshot.
+     */
+    public void removePlayerLootSeed(String containerKey, UUID playerUUID) {
+        ConcurrentHashMap<UUID, PlayerLootSeed> map = playerLootSeeds.get(containerKey);
+        if (map != null) {
+            map.remove(playerUUID);
+        }
+
+        if (dbConnection == null) return;
+        plugin.getSchedulerHelper().runAsync(() -> {
+            try (PreparedStatement pstmt = dbConnection.prepareStatement(
+                    "DELETE FROM player_loot_seeds WHERE container_key = ? AND player_uuid = ?")) {
+                pstmt.setString(1, containerKey);
+                pstmt.setString(2, playerUUID.toString());
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to remove player loot seed: " + e.getMessage());
+            }
+        });
+    }
+
     public void shutdown() {
         cleanup(false); // Final cleanup - run synchronously
         if (dbConnection != null) {
@@ -0,0 +1,126 @@
+package dev.waystone.vallhaloot.config;
+
+import dev.waystone.vallhaloot.loot.LootEntry;
+import dev.waystone.vallhaloot.loot.LootTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LootTableLoaderTest {
+    @TempDir
+    Path tablesDir;
+
+    private LootTableLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new LootTableLoader(Logger.getLogger(LootTableLoaderTest.class.getName()), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    void sharedChangeWithoutDependentTablesIsKeptForLaterRefreshes() throws IOException {
+        write("common.yml", """
+            name: common
+            pools:
+              main:
+                entries:
+                  stone:
+                    material: STONE
+            """);
+        write("_shared/food.yml", """
+            entries:
+              bread:
+                material: BREAD
+            """);
+        LootTableRegistry first = loader.loadAll(tablesDir.toFile(), 1);
+        assertNotNull(first.getShared().getEntry("bread"));
+
+        // No table uses the shared library yet, but the new entry must still be published
+        write("_shared/food.yml", """
+            entries:
+              bread:
+                material: BREAD
+              cake:
+                material: CAKE
+            """);
+        LootTableRegistry second = loader.refresh(first, tablesDir.toFile(), List.of("_shared/food.yml"), 2);
+        assertFalse(second.sameSourcesAs(first));
+        assertNotNull(second.getShared().getEntry("cake"));
+
+        // A single-table refresh (as the watcher sends) doesn't re-read _shared
+        write("common.yml", """
+            name: common
+            pools:
+              main:
+                entries:
+                  stone:
+                    material: STONE
+                  cake:
+                    ref: cake
+            """);
+        LootTableRegistry third = loader.refresh(second, tablesDir.toFile(), List.of("common.yml"), 3);
+        assertTrue(third.getDiagnostics().isEmpty(), () -> "Unexpected diagnostics: " + third.getDiagnostics());
+        LootTable common = third.getTable("common");
+        List<String> materials = common.getPools().get(0).getEntries().stream().map(LootEntry::getMaterial).toList();
+        assertEquals(List.of("STONE", "CAKE"), materials);
+        assertSame(second.getShared().getEntry("cake"), common.getPools().get(0).getEntries().get(1));
+    }
+
+    @Test
+    void unchangedFilesKeepTheRegistrySources() throws IOException {
+        write("common.yml", """
+            name: common
+            pools:
+              main:
+                entries:
+                  stone:
+                    material: STONE
+            """);
+        LootTableRegistry first = loader.loadAll(tablesDir.toFile(), 1);
+        LootTableRegistry second = loader.refresh(first, tablesDir.toFile(), null, 2);
+        assertTrue(second.sameSourcesAs(first));
+        assertSame(first.getTable("common"), second.getTable("common"));
+    }
+
+    @Test
+    void unknownConditionIsReported() throws IOException {
+        write("rare.yml", """
+            name: rare
+            pools:
+              main:
+                entries:
+                  diamond:
+                    material: DIAMOND
+                    conditions:
+                      permision: valloot.vip
+            """);
+        LootTableRegistry registry = loader.loadAll(tablesDir.toFile(), 1);
+        assertNotNull(registry.getTable("rare"));
+        List<TableDiagnostic> diagnostics = registry.getDiagnostics();
+        assertEquals(1, diagnostics.size());
+        assertEquals(TableDiagnostic.Kind.INVALID_VALUE, diagnostics.get(0).kind());
+        assertTrue(diagnostics.get(0).location().endsWith("conditions.permision"),
+            () -> "Unexpected location: " + diagnostics.get(0).location());
+    }
+
+    private void write(String name, String content) throws IOException {
+        File file = tablesDir.resolve(name).toFile();
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content);
+    }
+}